@@ -0,0 +1,226 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * This class reads the input file one byte at a time through a memory mapped
+ * FileChannel and gives the elements of each list directly to a doubly linked
+ * list. Unlike Scanner.nextLine() and ajouterListe, a line is never kept in
+ * memory as a whole, so its length does not matter. The file is mapped in
+ * windows so it can be bigger than what a single mapping allows.
+ *
+ * The lines are split the same way Main does it: the order of the sort, a
+ * space, then the list in which '[' and ']' are ignored and ',' separates the
+ * elements.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class LecteurListes implements Closeable {
+    // Size of the part of the file that is mapped at once
+    private static final long TAILLE_FENETRE = 1L << 26;
+    // Number of bytes given at once to the consumer of the raw list
+    private static final int TAILLE_ECHO = 1 << 16;
+
+    // The file being read
+    private final FileChannel canal;
+    // Part of the file currently mapped
+    private MappedByteBuffer fenetre;
+    // Position in the file of the beginning of the mapped part
+    private long debutFenetre;
+    // Byte read in advance by prochaineLigne(), -2 if there is none
+    private int octetEnAvance;
+
+    // Bytes of the element being read, reused for every element
+    private byte[] element;
+    private int tailleElement;
+    // Raw bytes of the list that were not given to the consumer yet
+    private byte[] brut;
+    private int tailleBrut;
+
+
+    /**
+     * Constructor that opens the file to read.
+     *
+     * @param fichier The file containing the lists.
+     * @throws IOException If the file can't be opened.
+     */
+    public LecteurListes(Path fichier) throws IOException {
+        this.canal = FileChannel.open(fichier, StandardOpenOption.READ);
+        this.debutFenetre = 0;
+        this.fenetre = canal.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(TAILLE_FENETRE, canal.size()));
+        this.octetEnAvance = -2;
+        this.element = new byte[64];
+        this.brut = new byte[TAILLE_ECHO + 4];
+    }
+
+    /**
+     * Reads the next byte of the file, mapping the next window if needed.
+     *
+     * @return The byte read, or -1 at the end of the file.
+     * @throws IOException If the file can't be read.
+     */
+    private int lireOctet() throws IOException {
+        if (octetEnAvance != -2) {
+            int octet = octetEnAvance;
+            octetEnAvance = -2;
+            return octet;
+        }
+
+        if (!fenetre.hasRemaining()) {
+            debutFenetre += fenetre.capacity();
+            if (debutFenetre >= canal.size())
+                return -1;
+            fenetre = canal.map(FileChannel.MapMode.READ_ONLY, debutFenetre,
+                    Math.min(TAILLE_FENETRE, canal.size() - debutFenetre));
+        }
+        return fenetre.get() & 0xFF;
+    }
+
+    /**
+     * Skips the empty lines until the beginning of the next line that
+     * contains something.
+     *
+     * @return false if the end of the file was reached.
+     * @throws IOException If the file can't be read.
+     */
+    public boolean prochaineLigne() throws IOException {
+        int octet;
+        do
+            octet = lireOctet();
+        while (octet == '\n' || octet == '\r');
+
+        if (octet == -1)
+            return false;
+
+        octetEnAvance = octet;
+        return true;
+    }
+
+    /**
+     * Reads the order of the sort, which is everything up to the first space
+     * of the line.
+     *
+     * @return The order of the sort ("asc" or "desc").
+     * @throws IOException If the file can't be read.
+     */
+    public String lireSens() throws IOException {
+        tailleElement = 0;
+        int octet = lireOctet();
+        while (octet != ' ' && octet != '\n' && octet != '\r'
+                && octet != -1) {
+            ajouterOctet(octet);
+            octet = lireOctet();
+        }
+
+        // The end of the line is left for lireListe()
+        if (octet != ' ')
+            octetEnAvance = octet;
+
+        return new String(element, 0, tailleElement, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the list at the end of the current line and gives each of its
+     * elements as soon as it is read (usually to ajouterNoeud of a doubly
+     * linked list). Anything after another space on the line is ignored,
+     * like in Main.
+     *
+     * @param elements Receives each element of the list as an item.
+     * @param echo     Receives the raw list, part by part, so it can be printed
+     *                 without keeping it whole in memory.
+     * @throws IOException If the file can't be read.
+     */
+    public void lireListe(Consumer<Item<?>> elements, Consumer<String> echo)
+            throws IOException {
+        // Like String.split, empty elements are only kept if they are
+        // followed by a non empty one, unless there was no comma at all.
+        int elementsVidesEnAttente = 0;
+        boolean virguleLue = false;
+
+        tailleElement = 0;
+        tailleBrut = 0;
+        int octet = lireOctet();
+        while (octet != ' ' && octet != '\n' && octet != '\r'
+                && octet != -1) {
+            ajouterBrut(octet, echo);
+
+            if (octet == ',') {
+                if (tailleElement == 0)
+                    elementsVidesEnAttente++;
+                else {
+                    elementsVidesEnAttente =
+                            ajouterElement(elements, elementsVidesEnAttente);
+                }
+                virguleLue = true;
+            }
+            // The brackets are ignored, like in ajouterListe
+            else if (octet != '[' && octet != ']')
+                ajouterOctet(octet);
+
+            octet = lireOctet();
+        }
+        if (tailleBrut > 0)
+            echo.accept(new String(brut, 0, tailleBrut,
+                    StandardCharsets.UTF_8));
+
+        // The last element is dropped if it is empty, except if there was no
+        // comma at all.
+        if (tailleElement > 0 || !virguleLue)
+            ajouterElement(elements, elementsVidesEnAttente);
+
+        // We skip the rest of the line
+        while (octet != '\n' && octet != '\r' && octet != -1)
+            octet = lireOctet();
+    }
+
+    /**
+     * Adds the element that was just read to the list, after the empty
+     * elements that were waiting before it.
+     *
+     * @return The new number of empty elements waiting, always 0.
+     */
+    private int ajouterElement(Consumer<Item<?>> elements,
+            int elementsVidesEnAttente) {
+        for (; elementsVidesEnAttente > 0; elementsVidesEnAttente--)
+            elements.accept(ListeDoublementChainee.creerItem(""));
+        elements.accept(ListeDoublementChainee.creerItem(
+                new String(element, 0, tailleElement, StandardCharsets.UTF_8)));
+        tailleElement = 0;
+        return 0;
+    }
+
+    /**
+     * Keeps a raw byte of the list for the consumer. The raw bytes are given
+     * to the consumer when there are enough of them, but never in the middle
+     * of a UTF-8 character.
+     */
+    private void ajouterBrut(int octet, Consumer<String> echo) {
+        if (tailleBrut >= TAILLE_ECHO && (octet & 0xC0) != 0x80) {
+            echo.accept(new String(brut, 0, tailleBrut,
+                    StandardCharsets.UTF_8));
+            tailleBrut = 0;
+        }
+        if (tailleBrut == brut.length)
+            brut = Arrays.copyOf(brut, brut.length * 2);
+        brut[tailleBrut++] = (byte) octet;
+    }
+
+    // Adds a byte to the element being read, growing it if needed
+    private void ajouterOctet(int octet) {
+        if (tailleElement == element.length)
+            element = Arrays.copyOf(element, element.length * 2);
+        element[tailleElement++] = (byte) octet;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
@@ -0,0 +1,471 @@
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is a doubly linked list that sorts its items in the same way as
+ * ListeDoublementChainee, but its nodes are not objects. A node is an index in
+ * parallel arrays (the arena) holding the item, the previous node and the next
+ * node of every node. New nodes are taken one after the other from the arena,
+ * removed nodes are kept in a free list to be taken again, and vider() gives
+ * back the whole arena at once, so the same list can be reused for every line
+ * without allocating nodes once the arena is big enough.
+ *
+ * Like ListeDoublementChainee, a new node is placed from the finger (the last
+ * node added) when the items can be compared consistently, and right away
+ * when it goes before the first node or after the last one.
+ *
+ * @author Nicolas Levasseur
+ */
+public class ListeArene implements IListeDoublementChainee {
+    // Index used for a missing node, like null for a reference
+    private static final int AUCUN = -1;
+    // Number of nodes in a new arena
+    private static final int CAPACITE_INITIALE = 64;
+    // Above this number of nodes, vider() gives the arena back to the garbage
+    // collector instead of keeping it for the next list.
+    private static final int CAPACITE_MAX_GARDEE = 1 << 20;
+
+    // Order in which the list is sorted: -1 if ascending and 1 if
+    // descending, like in ListeDoublementChainee.ajouterNoeud.
+    private float sensDeTri;
+
+    // The arena: the item, the previous node and the next node of each node
+    private Item<?>[] items;
+    private int[] precedents;
+    private int[] suivants;
+    // Number of nodes taken from the arena, removed ones included
+    private int utilises;
+    // First removed node, the others are linked with suivants
+    private int libre;
+    // Number of items in the list
+    private int taille;
+
+    // The first node in the chain.
+    private int premier;
+    // The last node in the chain.
+    private int dernier;
+    // The finger: the last node added, from which the next one is placed.
+    private int doigt;
+    // Kinds of items in the chain, see noterType.
+    private boolean contientTexte;
+    private boolean contientNombre;
+    private boolean contientNaN;
+
+
+    /**
+     * Constructor for an empty list with a small arena.
+     *
+     * @param sens The order of the list ("asc" or "desc").
+     */
+    public ListeArene(String sens) {
+        this.items = new Item<?>[CAPACITE_INITIALE];
+        this.precedents = new int[CAPACITE_INITIALE];
+        this.suivants = new int[CAPACITE_INITIALE];
+        vider(sens);
+    }
+
+    /**
+     * Empties the list so it can be reused for a new list, possibly sorted in
+     * another order. The nodes of the arena are all given back at once, so
+     * this does not depend on the length of the list.
+     *
+     * @param sens The order of the new list ("asc" or "desc").
+     */
+    public void vider(String sens) {
+        this.sensDeTri = sens.equals("asc") ? -1 : 1;
+
+        if (items.length > CAPACITE_MAX_GARDEE) {
+            items = new Item<?>[CAPACITE_INITIALE];
+            precedents = new int[CAPACITE_INITIALE];
+            suivants = new int[CAPACITE_INITIALE];
+        } else {
+            // We forget the items so they can be garbage collected
+            Arrays.fill(items, 0, utilises, null);
+        }
+
+        utilises = 0;
+        libre = AUCUN;
+        taille = 0;
+        premier = dernier = doigt = AUCUN;
+        contientTexte = contientNombre = contientNaN = false;
+    }
+
+    /**
+     * Takes a new node from the arena, a removed one if there is one,
+     * growing the arena if it is full.
+     *
+     * @return The index of the new node.
+     */
+    private int nouveauNoeud(int precedent, Item<?> item, int suivant) {
+        int node;
+        if (libre != AUCUN) {
+            node = libre;
+            libre = suivants[libre];
+        } else {
+            if (utilises == items.length) {
+                int capacite = items.length * 2;
+                items = Arrays.copyOf(items, capacite);
+                precedents = Arrays.copyOf(precedents, capacite);
+                suivants = Arrays.copyOf(suivants, capacite);
+            }
+            node = utilises++;
+        }
+
+        items[node] = item;
+        precedents[node] = precedent;
+        suivants[node] = suivant;
+        return node;
+    }
+
+    /**
+     * This method transforms the String list in a doubly linked chain, in the
+     * same way as ListeDoublementChainee.ajouterListe.
+     *
+     * @param listeEnString the list specified in the input (ex: '[1,2,3]').
+     */
+    @Override
+    public void ajouterListe(String listeEnString) {
+        listeEnString = listeEnString.replace("[", "");
+        listeEnString = listeEnString.replace("]", "");
+        String[] listeInitiale = listeEnString.split(",");
+
+        for (int i = 0; i < listeInitiale.length; i++)
+            ajouterNoeud(ListeDoublementChainee.creerItem(listeInitiale[i]));
+    }
+
+    /**
+     * This method adds an item to the list at its place in the order, exactly
+     * like ListeDoublementChainee.ajouterNoeud.
+     *
+     * @param item The item to add.
+     */
+    @Override
+    public void ajouterNoeud(Item<?> item) {
+        taille++;
+        noterType(item);
+
+        // If the chain is empty, the new node is the first and the last one
+        if (premier == AUCUN) {
+            premier = dernier = doigt = nouveauNoeud(AUCUN, item, AUCUN);
+            return;
+        }
+
+        // If the items can be compared consistently, the chain is really
+        // sorted and the place of the new node is looked for from the finger
+        if (ordreTransitif()) {
+            insererDepuisDoigt(item);
+            return;
+        }
+
+        // We look for the first node that should come after the new one
+        for (int current = premier; current != AUCUN;
+                current = suivants[current]) {
+            if (Math.signum(item.compareTo(items[current])) == sensDeTri) {
+                int before = precedents[current];
+                int node = nouveauNoeud(before, item, current);
+                precedents[current] = node;
+                if (before != AUCUN)
+                    suivants[before] = node;
+                else
+                    premier = node;
+                return;
+            }
+        }
+
+        // If we reached the end of the chain, the new node is placed at the
+        // end.
+        int node = nouveauNoeud(dernier, item, AUCUN);
+        suivants[dernier] = node;
+        dernier = node;
+    }
+
+    /**
+     * Places a new node in a sorted chain from the finger, exactly like
+     * ListeDoublementChainee.insererDepuisDoigt. Adding before the first node
+     * or after the last one is done right away, and equal items stay in the
+     * order they were added.
+     *
+     * @param item The item to add, the chain is not empty.
+     */
+    private void insererDepuisDoigt(Item<?> item) {
+        // apres is the node that will come right after the new one, AUCUN if
+        // the new node goes at the end.
+        int apres;
+        if (Math.signum(item.compareTo(items[dernier])) != sensDeTri)
+            apres = AUCUN;
+        else if (Math.signum(item.compareTo(items[premier])) == sensDeTri)
+            apres = premier;
+        else {
+            // The walk from the finger always stops before the ends, because
+            // of the two cases above.
+            apres = doigt == AUCUN ? premier : doigt;
+            if (Math.signum(item.compareTo(items[apres])) == sensDeTri) {
+                while (Math.signum(item.compareTo(items[precedents[apres]]))
+                        == sensDeTri)
+                    apres = precedents[apres];
+            } else {
+                do
+                    apres = suivants[apres];
+                while (Math.signum(item.compareTo(items[apres])) != sensDeTri);
+            }
+        }
+
+        int avant = apres == AUCUN ? dernier : precedents[apres];
+        int node = nouveauNoeud(avant, item, apres);
+        if (avant == AUCUN)
+            premier = node;
+        else
+            suivants[avant] = node;
+        if (apres == AUCUN)
+            dernier = node;
+        else
+            precedents[apres] = node;
+        doigt = node;
+    }
+
+    /**
+     * Remembers the kind of an item added to the chain, like
+     * ListeDoublementChainee.noterType: a chain that mixes strings and
+     * numbers, or that contains NaN, is not always sorted in a transitive
+     * way.
+     *
+     * @param item The item added to the chain.
+     */
+    private void noterType(Item<?> item) {
+        Object valeur = item.getValeur();
+        if (valeur instanceof String)
+            contientTexte = true;
+        else {
+            contientNombre = true;
+            if (valeur instanceof Double && ((Double) valeur).isNaN())
+                contientNaN = true;
+        }
+    }
+
+    // true if the items of the chain can all be compared consistently
+    private boolean ordreTransitif() {
+        return !contientNaN && !(contientTexte && contientNombre);
+    }
+
+    /**
+     * This class is a cursor that goes through the nodes of the arena without
+     * copying them, from the beginning to the end or the opposite. The last
+     * item given by next() can be removed from the list with remove(). The
+     * list must not be changed other than with this cursor while it is used.
+     *
+     * @author Nicolas Levasseur
+     */
+    private class Curseur implements Iterator<Item<?>> {
+        // Next node given by the cursor, AUCUN at the end
+        private int prochain;
+        // Last node given by next(), the one removed by remove()
+        private int donne = AUCUN;
+        // true if the cursor goes from the end to the beginning
+        private final boolean aRebours;
+        // The cursor stops before the first item that comes after this one in
+        // the list, null to go until the end.
+        private final Item<?> borne;
+
+        Curseur(int depart, boolean aRebours, Item<?> borne) {
+            this.prochain = depart;
+            this.aRebours = aRebours;
+            this.borne = borne;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return prochain != AUCUN
+                    && (borne == null || ordre(items[prochain], borne) <= 0);
+        }
+
+        @Override
+        public Item<?> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            donne = prochain;
+            prochain = aRebours ? precedents[prochain] : suivants[prochain];
+            return items[donne];
+        }
+
+        @Override
+        public void remove() {
+            if (donne == AUCUN)
+                throw new IllegalStateException();
+            retirerNoeud(donne);
+            donne = AUCUN;
+        }
+    }
+
+    /**
+     * Compares two items in the order of the list.
+     *
+     * @return A negative number if a comes before b in the list, 0 if they
+     *         are equal and a positive number if a comes after b.
+     */
+    private int ordre(Item<?> a, Item<?> b) {
+        // sensDeTri is -1 for an ascending list, so we change the sign
+        return (int) (Math.signum(a.compareTo(b)) * -sensDeTri);
+    }
+
+    // Removes a node from the chain by linking its neighbours together, and
+    // gives it back to the arena.
+    private void retirerNoeud(int node) {
+        if (node == doigt)
+            doigt = precedents[node] != AUCUN ? precedents[node]
+                    : suivants[node];
+
+        if (precedents[node] != AUCUN)
+            suivants[precedents[node]] = suivants[node];
+        else
+            premier = suivants[node];
+
+        if (suivants[node] != AUCUN)
+            precedents[suivants[node]] = precedents[node];
+        else
+            dernier = precedents[node];
+
+        items[node] = null;
+        suivants[node] = libre;
+        libre = node;
+        taille--;
+    }
+
+    /**
+     * @return The number of items in the list.
+     */
+    @Override
+    public int taille() {
+        return taille;
+    }
+
+    /**
+     * @return The first item of the list, or null if the list is empty.
+     */
+    @Override
+    public Item<?> getPremier() {
+        return premier == AUCUN ? null : items[premier];
+    }
+
+    /**
+     * @return The last item of the list, or null if the list is empty.
+     */
+    @Override
+    public Item<?> getDernier() {
+        return dernier == AUCUN ? null : items[dernier];
+    }
+
+    /**
+     * @return A cursor going through the list from beginning to the end.
+     */
+    @Override
+    public Iterator<Item<?>> curseurDuDebut() {
+        return new Curseur(premier, false, null);
+    }
+
+    /**
+     * @return A cursor going through the list from the end to the beginning.
+     */
+    @Override
+    public Iterator<Item<?>> curseurDeLaFin() {
+        return new Curseur(dernier, true, null);
+    }
+
+    /**
+     * Gives a view of the part of the list that is between two items, in the
+     * order of the list (so debut should be the greatest one for a descending
+     * list). The view is not a copy: it goes through the nodes of the list
+     * each time it is iterated, and its cursors can remove items from the
+     * list.
+     *
+     * @param debut No item before this one in the list is in the view.
+     * @param fin   No item after this one in the list is in the view.
+     * @return The view of the items from debut to fin, both included.
+     */
+    @Override
+    public Iterable<Item<?>> entre(Item<?> debut, Item<?> fin) {
+        return () -> {
+            int depart = premier;
+            while (depart != AUCUN && ordre(items[depart], debut) < 0)
+                depart = suivants[depart];
+            return new Curseur(depart, false, fin);
+        };
+    }
+
+    /**
+     * Removes the first item of the list that is equal to the given one
+     * (compareTo gives 0, like for the sorting).
+     *
+     * @param item The item to remove.
+     * @return true if an item was removed.
+     */
+    @Override
+    public boolean retirer(Item<?> item) {
+        for (int node = premier; node != AUCUN; node = suivants[node]) {
+            if (item.compareTo(items[node]) == 0) {
+                retirerNoeud(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method is used to print the list from beginning to the end.
+     */
+    @Override
+    public void imprimerListeDuDebut() {
+        imprimerListeDuDebut(System.out);
+    }
+
+    /**
+     * This method is used to print the list from beginning to the end in the
+     * given stream.
+     *
+     * @param out The stream in which the list is printed.
+     */
+    public void imprimerListeDuDebut(PrintStream out) {
+        int node = premier;
+        out.print("Noeuds du debut vers la fin: ");
+        if (node == AUCUN) {
+            out.println();
+            return;
+        }
+        out.print(items[node].getValeur());
+
+        for (node = suivants[node]; node != AUCUN; node = suivants[node]) {
+            out.print("->");
+            out.print(items[node].getValeur());
+        }
+        out.println();
+    }
+
+    /**
+     * This method is used to print the list from the end to the beginning.
+     */
+    @Override
+    public void imprimerListeDeLaFin() {
+        imprimerListeDeLaFin(System.out);
+    }
+
+    /**
+     * This method is used to print the list from the end to the beginning in
+     * the given stream.
+     *
+     * @param out The stream in which the list is printed.
+     */
+    public void imprimerListeDeLaFin(PrintStream out) {
+        int node = dernier;
+        out.print("Noeuds de la fin vers le debut: ");
+        if (node == AUCUN)
+            return;
+        out.print(items[node].getValeur());
+
+        for (node = precedents[node]; node != AUCUN;
+                node = precedents[node]) {
+            out.print("->");
+            out.print(items[node].getValeur());
+        }
+    }
+}
@@ -1,3 +1,12 @@
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * This class is a doubly linked list structure that can support three
  * different types (Integer, Double and String) and sort them in ascending or
@@ -15,13 +24,16 @@ public class ListeDoublementChainee implements IListeDoublementChainee {
      *
      * @author Nicolas Levasseur
      */
-    private class Noeud{
+    private static class Noeud{
         // Reference to the last node in the list
         public Noeud precedent;
         // Item contained in the current node
         public Item<?> item;
         // Reference to the the next node in the list
         public Noeud suivant;
+        // Number of copies of the item held by the node, more than 1 only in
+        // counted mode
+        public int nombre;
 
         /**
          * Constructor for a node in a double chained list.
@@ -34,6 +46,7 @@ public class ListeDoublementChainee implements IListeDoublementChainee {
             this.precedent = precedent;
             this.item = item;
             this.suivant = suivant;
+            this.nombre = 1;
         }
     }
 
@@ -41,10 +54,21 @@ public class ListeDoublementChainee implements IListeDoublementChainee {
     // Sens is the order in which the list will be sorted (ascending or
     // descending).
     private final String sens;
+    // true in counted mode, where equal values share a node, see
+    // ajouterAuGroupe.
+    private final boolean compte;
     // The first node in the chain.
     private Noeud premier;
     // The last node in the chain.
     private Noeud dernier;
+    // The number of nodes in the chain.
+    private int taille;
+    // The finger: the last node added, from which the next one is placed.
+    private Noeud doigt;
+    // Kinds of items in the chain, see noterType.
+    private boolean contientTexte;
+    private boolean contientNombre;
+    private boolean contientNaN;
 
 
     /**
@@ -54,7 +78,22 @@ public class ListeDoublementChainee implements IListeDoublementChainee {
      * @param sens is specfied in the input and extracted in the Main class.
      */
     public ListeDoublementChainee(String sens) {
+        this(sens, false);
+    }
+
+    /**
+     * Constructor for the doubly linked list, in counted mode or not. In
+     * counted mode, copies of a value that are next to each other in the
+     * chain share one node, so the memory used and the time taken to add an
+     * item depend on the number of different values. The list is printed and
+     * iterated the same way in both modes.
+     * 
+     * @param sens   is the order of the list ("asc" or "desc").
+     * @param compte is true for the counted mode.
+     */
+    public ListeDoublementChainee(String sens, boolean compte) {
         this.sens = sens;
+        this.compte = compte;
 
         // Premier and dernier are initialized to null, since the chain is
         // empty at the beginning.
@@ -78,33 +117,33 @@ public class ListeDoublementChainee implements IListeDoublementChainee {
         // listeInitiale is the String list cleaned up.
         String[] listeInitiale = listeEnString.split(",");
 
-        // We initialize a temp variable of type Item<?>
-        Item<?> temp;
-
         // We loop through the String list to transform the elements into
-        // items.
-        for (int i = 0; i < listeInitiale.length; i++) {
-
-            // We initialize a String variable "item" for the current element.
-            String item = listeInitiale[i];
-
-            // We look if the element is an integer and create an item
-            // consequently.
-            if (Main.isInteger(item))
-                temp = new Item<>(Integer.parseInt(item));
+        // items, and a node is created with each new item.
+        for (int i = 0; i < listeInitiale.length; i++)
+            ajouterNoeud(creerItem(listeInitiale[i]));
+    }
 
-            // We look if the element is a double and create an item
-            // consequently.
-            else if (Main.isDouble(item))
-                temp = new Item<>(Double.parseDouble(item));
+    /**
+     * This method transforms one element of a list in the input into an item
+     * of the right type (Integer, Double or String).
+     * 
+     * @param item One element of the list, without the brackets or commas.
+     * @return The item created from the element.
+     */
+    public static Item<?> creerItem(String item) {
+        // We look if the element is an integer and create an item
+        // consequently.
+        if (Main.isInteger(item))
+            return new Item<>(Integer.parseInt(item));
 
-            // Else, the element is a String and we create an item consequently
-            else
-                temp = new Item<>(item);
+        // We look if the element is a double and create an item
+        // consequently.
+        else if (Main.isDouble(item))
+            return new Item<>(Double.parseDouble(item));
 
-            // A node is created with the new item.
-            ajouterNoeud(temp);
-        }
+        // Else, the element is a String and we create an item consequently
+        else
+            return new Item<>(item);
     }
 
     /**
@@ -120,13 +159,26 @@ public class ListeDoublementChainee implements IListeDoublementChainee {
         // descending.
         float sensDeTri = sens.equals("asc") ? -1 : 1;
 
+        // The item is always added somewhere in the chain
+        taille++;
+        noterType(item);
+
         // We initialize the variable current to the first node in the chain.
         Noeud current = premier;
 
         // If the chain is empty, meaning this new node is the first one
         // created, we assign the node to the first and last node.
         if (premier == null) {
-            premier = dernier = new Noeud(null, item, null);
+            premier = dernier = doigt = new Noeud(null, item, null);
+            return;
+        }
+
+        // If the items can be compared consistently, the chain is really
+        // sorted and we can look for the place of the new node from the
+        // finger. Otherwise, we keep the first node (from the beginning) that
+        // should come after the new one, like we always did.
+        if (ordreTransitif()) {
+            insererDepuisDoigt(item, sensDeTri);
             return;
         }
 
@@ -141,6 +193,9 @@ public class ListeDoublementChainee implements IListeDoublementChainee {
                 // We intialize the node that will be placed before our new
                 // node
                 Noeud before = current.precedent;
+                // In counted mode, it may already hold copies of the item
+                if (ajouterAuGroupe(before, item))
+                    return;
                 // The new node is placed before the "current" node
                 current.precedent = new Noeud(before, item, current);
                 // If the previous node wasn't the first (therefore null), the
@@ -159,30 +214,573 @@ public class ListeDoublementChainee implements IListeDoublementChainee {
         }
         // If we reached the end of the chain, the new node is placed at the
         // end.
+        if (ajouterAuGroupe(dernier, item))
+            return;
         Noeud temp = dernier;
         dernier = new Noeud(temp, item, null);
         // the previous last node's next is assigned to the new node.
         temp.suivant = dernier;
     }
 
+    /**
+     * This class sorts a part of an array of items with a merge sort whose
+     * two halves are sorted in parallel on a ForkJoinPool. The small parts are
+     * sorted with Arrays.sort. Both sorts are stable, so equal items stay in
+     * the order in which they were added, like with ajouterNoeud.
+     *
+     * @author Nicolas Levasseur
+     */
+    private static final class TriFusion extends RecursiveAction {
+        // Under this size, a part is sorted without splitting it
+        private static final int SEUIL = 1 << 13;
+        // Used for the serializable interface of RecursiveAction
+        static final long serialVersionUID = 1L;
+
+        // Items to sort and a temporary array of the same size for merging
+        private final Item<?>[] items;
+        private final Item<?>[] temp;
+        // Part of the array to sort, from debut (inclusive) to fin (exclusive)
+        private final int debut;
+        private final int fin;
+        // Order in which the items are sorted
+        private final Comparator<Item<?>> ordre;
+
+        TriFusion(Item<?>[] items, Item<?>[] temp, int debut, int fin,
+                Comparator<Item<?>> ordre) {
+            this.items = items;
+            this.temp = temp;
+            this.debut = debut;
+            this.fin = fin;
+            this.ordre = ordre;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut <= SEUIL) {
+                Arrays.sort(items, debut, fin, ordre);
+                return;
+            }
+
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new TriFusion(items, temp, debut, milieu, ordre),
+                    new TriFusion(items, temp, milieu, fin, ordre));
+
+            // If the two halves are already in order, there is nothing to do
+            if (ordre.compare(items[milieu - 1], items[milieu]) <= 0)
+                return;
+
+            // We merge the two halves in temp, taking from the first half
+            // when the items are equal so the merge stays stable.
+            int i = debut, j = milieu, k = debut;
+            while (i < milieu && j < fin)
+                temp[k++] = ordre.compare(items[i], items[j]) <= 0
+                        ? items[i++] : items[j++];
+            while (i < milieu)
+                temp[k++] = items[i++];
+            while (j < fin)
+                temp[k++] = items[j++];
+            System.arraycopy(temp, debut, items, debut, fin - debut);
+        }
+    }
+
+    /**
+     * Tells if items can be sorted by ajouterItemsParallele. Item.compareTo
+     * compares a string and a number as text, but two numbers as numbers, and
+     * NaN is equal to every number, so the order of an array that mixes
+     * strings and numbers, or that holds NaN, is not transitive (for example
+     * 9 < 10 as numbers and 10 < "9" as text, yet 9 and "9" are equal).
+     * Sorting such an array can make Arrays.sort throw "Comparison
+     * method violates its general contract!", and even when it does not, the
+     * result is not the order given by ajouterNoeud, which only compares each
+     * new item to the items already in the chain.
+     *
+     * @param items The items to sort.
+     * @return true if the items are ordered in a transitive way.
+     */
+    private static boolean triable(Item<?>[] items) {
+        boolean texte = false;
+        boolean nombre = false;
+        for (Item<?> item : items) {
+            Object valeur = item.getValeur();
+            if (valeur instanceof String)
+                texte = true;
+            else if (valeur instanceof Double && ((Double) valeur).isNaN())
+                return false;
+            else
+                nombre = true;
+            if (texte && nombre)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * This method adds many items at once to the list. Instead of inserting
+     * them one by one, the items already in the list and the new ones are
+     * sorted together with a parallel merge sort, then the chain is rebuilt
+     * from the sorted items.
+     * 
+     * The sort is stable and uses the same comparison as ajouterNoeud, so the
+     * result is the same as adding the items one by one. The sort needs the
+     * items to be compared consistently, so when they can't be (see
+     * triable), they are simply added one by one with ajouterNoeud, which
+     * gives the insertion order whatever the items are.
+     * 
+     * @param nouveaux The items to add to the list.
+     * @param pool     The pool on which the sort is done.
+     */
+    public void ajouterItemsParallele(Item<?>[] nouveaux, ForkJoinPool pool) {
+        // We put the items already in the chain first, so they stay before
+        // the equal items that are added.
+        Item<?>[] items = new Item<?>[taille + nouveaux.length];
+        int i = 0;
+        for (Iterator<Item<?>> curseur = curseurDuDebut(); curseur.hasNext();)
+            items[i++] = curseur.next();
+        System.arraycopy(nouveaux, 0, items, taille, nouveaux.length);
+
+        if (!triable(items)) {
+            for (Item<?> item : nouveaux)
+                ajouterNoeud(item);
+            return;
+        }
+
+        // ajouterNoeud puts the new item before the first item that is
+        // greater (asc) or smaller (desc) than it.
+        Comparator<Item<?>> ordre = sens.equals("asc")
+                ? (a, b) -> (int) Math.signum(a.compareTo(b))
+                : (a, b) -> (int) Math.signum(b.compareTo(a));
+        pool.invoke(new TriFusion(items, new Item<?>[items.length], 0,
+                items.length, ordre));
+
+        // We rebuild the chain from the sorted items
+        premier = dernier = doigt = null;
+        taille = 0;
+        contientTexte = contientNombre = contientNaN = false;
+        for (Item<?> item : items)
+            ajouterALaFin(item);
+    }
+
+    /**
+     * This class is a cursor that goes through the nodes of the list without
+     * copying them, from the beginning to the end or the opposite. The last
+     * item given by next() can be removed from the list with remove(). The
+     * list must not be changed other than with this cursor while it is used.
+     *
+     * @author Nicolas Levasseur
+     */
+    private class Curseur implements Iterator<Item<?>> {
+        // Next node given by the cursor, null at the end
+        private Noeud prochain;
+        // Number of copies of the item of prochain already given
+        private int dejaDonnes;
+        // Last node given by next(), the one removed by remove()
+        private Noeud donne;
+        // true if the cursor goes from the end to the beginning
+        private final boolean aRebours;
+        // The cursor stops before the first item that comes after this one in
+        // the list, null to go until the end.
+        private final Item<?> borne;
+
+        Curseur(Noeud depart, boolean aRebours, Item<?> borne) {
+            this.prochain = depart;
+            this.aRebours = aRebours;
+            this.borne = borne;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return prochain != null
+                    && (borne == null || ordre(prochain.item, borne) <= 0);
+        }
+
+        @Override
+        public Item<?> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            // We go to the next node after giving every copy of the item
+            donne = prochain;
+            if (++dejaDonnes == prochain.nombre) {
+                prochain = aRebours ? prochain.precedent : prochain.suivant;
+                dejaDonnes = 0;
+            }
+            return donne.item;
+        }
+
+        @Override
+        public void remove() {
+            if (donne == null)
+                throw new IllegalStateException();
+            // If the cursor is still on the node, one less copy was given
+            if (donne == prochain)
+                dejaDonnes--;
+            retirerNoeud(donne);
+            donne = null;
+        }
+    }
+
+    /**
+     * Compares two items in the order of the list.
+     *
+     * @return A negative number if a comes before b in the list, 0 if they
+     *         are equal and a positive number if a comes after b.
+     */
+    private int ordre(Item<?> a, Item<?> b) {
+        int comparaison = (int) Math.signum(a.compareTo(b));
+        return sens.equals("asc") ? comparaison : -comparaison;
+    }
+
+    // Adds an item at the end of the chain, without looking at its order
+    private void ajouterALaFin(Item<?> item) {
+        taille++;
+        noterType(item);
+        if (ajouterAuGroupe(dernier, item))
+            return;
+
+        Noeud node = new Noeud(dernier, item, null);
+        if (dernier == null)
+            premier = node;
+        else
+            dernier.suivant = node;
+        dernier = doigt = node;
+    }
+
+    /**
+     * Places a new node in a sorted chain by starting from the finger instead
+     * of the beginning, which is much faster when the items arrive almost
+     * sorted. Adding before the first node or after the last one is done
+     * right away. The new node comes after every node that is not after it
+     * in the order, so equal items stay in the order they were added.
+     *
+     * @param item      The item to add, the chain is not empty.
+     * @param sensDeTri -1 if ascending and 1 if descending, see ajouterNoeud.
+     */
+    private void insererDepuisDoigt(Item<?> item, float sensDeTri) {
+        // apres is the node that will come right after the new one, null if
+        // the new node goes at the end.
+        Noeud apres;
+        if (Math.signum(item.compareTo(dernier.item)) != sensDeTri)
+            apres = null;
+        else if (Math.signum(item.compareTo(premier.item)) == sensDeTri)
+            apres = premier;
+        else {
+            // The new node goes between two nodes: we walk from the finger to
+            // the node that will come right after it. The walk always stops
+            // before the ends, because of the two cases above.
+            apres = doigt == null ? premier : doigt;
+            if (Math.signum(item.compareTo(apres.item)) == sensDeTri) {
+                while (Math.signum(item.compareTo(apres.precedent.item))
+                        == sensDeTri)
+                    apres = apres.precedent;
+            } else {
+                do
+                    apres = apres.suivant;
+                while (Math.signum(item.compareTo(apres.item)) != sensDeTri);
+            }
+        }
+
+        Noeud avant = apres == null ? dernier : apres.precedent;
+        if (ajouterAuGroupe(avant, item))
+            return;
+
+        Noeud node = new Noeud(avant, item, apres);
+        if (avant == null)
+            premier = node;
+        else
+            avant.suivant = node;
+        if (apres == null)
+            dernier = node;
+        else
+            apres.precedent = node;
+        doigt = node;
+    }
+
+    /**
+     * In counted mode, adds a copy to the node that would be right before the
+     * new item, instead of creating a node for it, if they hold the same
+     * value. Items that are only equal for compareTo (ex: 1 and 1.0) keep
+     * their own node, so the printed list does not change.
+     *
+     * @param node The node that would be right before the item, or null.
+     * @param item The item to add.
+     * @return true if the item was added to the node.
+     */
+    private boolean ajouterAuGroupe(Noeud node, Item<?> item) {
+        if (!compte || node == null
+                || !node.item.getValeur().equals(item.getValeur()))
+            return false;
+
+        node.nombre++;
+        doigt = node;
+        return true;
+    }
+
+    /**
+     * Remembers the kind of an item added to the chain. Strings and numbers
+     * are compared differently by Item (as text or as numbers), so a chain
+     * that mixes them, or that contains NaN (equal to every number), is not
+     * always sorted in a transitive way.
+     *
+     * @param item The item added to the chain.
+     */
+    private void noterType(Item<?> item) {
+        Object valeur = item.getValeur();
+        if (valeur instanceof String)
+            contientTexte = true;
+        else {
+            contientNombre = true;
+            if (valeur instanceof Double && ((Double) valeur).isNaN())
+                contientNaN = true;
+        }
+    }
+
+    // true if the items of the chain can all be compared consistently
+    private boolean ordreTransitif() {
+        return !contientNaN && !(contientTexte && contientNombre);
+    }
+
+    // Removes one copy of the item of a node, and the node from the chain
+    // (by linking its neighbours together) if it was the last copy
+    private void retirerNoeud(Noeud node) {
+        if (node.nombre > 1) {
+            node.nombre--;
+            taille--;
+            return;
+        }
+
+        if (node == doigt)
+            doigt = node.precedent != null ? node.precedent : node.suivant;
+
+        if (node.precedent != null)
+            node.precedent.suivant = node.suivant;
+        else
+            premier = node.suivant;
+
+        if (node.suivant != null)
+            node.suivant.precedent = node.precedent;
+        else
+            dernier = node.precedent;
+
+        taille--;
+    }
+
+    /**
+     * @return The number of items in the list.
+     */
+    @Override
+    public int taille() {
+        return taille;
+    }
+
+    /**
+     * @return The first item of the list, or null if the list is empty.
+     */
+    @Override
+    public Item<?> getPremier() {
+        return premier == null ? null : premier.item;
+    }
+
+    /**
+     * @return The last item of the list, or null if the list is empty.
+     */
+    @Override
+    public Item<?> getDernier() {
+        return dernier == null ? null : dernier.item;
+    }
+
+    /**
+     * @return A cursor going through the list from beginning to the end.
+     */
+    @Override
+    public Iterator<Item<?>> curseurDuDebut() {
+        return new Curseur(premier, false, null);
+    }
+
+    /**
+     * @return A cursor going through the list from the end to the beginning.
+     */
+    @Override
+    public Iterator<Item<?>> curseurDeLaFin() {
+        return new Curseur(dernier, true, null);
+    }
+
+    /**
+     * Gives a view of the part of the list that is between two items, in the
+     * order of the list (so debut should be the greatest one for a descending
+     * list). The view is not a copy: it goes through the nodes of the list
+     * each time it is iterated, and its cursors can remove items from the
+     * list.
+     *
+     * @param debut No item before this one in the list is in the view.
+     * @param fin   No item after this one in the list is in the view.
+     * @return The view of the items from debut to fin, both included.
+     */
+    @Override
+    public Iterable<Item<?>> entre(Item<?> debut, Item<?> fin) {
+        return () -> {
+            Noeud depart = premier;
+            while (depart != null && ordre(depart.item, debut) < 0)
+                depart = depart.suivant;
+            return new Curseur(depart, false, fin);
+        };
+    }
+
+    /**
+     * Removes the first item of the list that is equal to the given one
+     * (compareTo gives 0, like for the sorting).
+     *
+     * @param item The item to remove.
+     * @return true if an item was removed.
+     */
+    @Override
+    public boolean retirer(Item<?> item) {
+        for (Noeud node = premier; node != null; node = node.suivant) {
+            if (item.compareTo(node.item) == 0) {
+                retirerNoeud(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges other lists sorted in the same order into this one. The nodes
+     * of the other lists are moved into this list, without creating new nodes
+     * or items, and the other lists are left empty. A heap gives at each step
+     * the list whose first node comes first, so merging N nodes from k lists
+     * takes O(N log k). When only one list is left, the rest of its chain is
+     * linked at once.
+     *
+     * Equal items keep their order: those of this list come first, then
+     * those of each other list in the order they are given, like if all the
+     * items had been added to this list one after the other (as long as the
+     * items can be compared consistently, see noterType).
+     *
+     * @param autres The lists to merge into this one, in the same order.
+     * @throws IllegalArgumentException If a list is not sorted in the same
+     *                                  order or is given more than once.
+     */
+    public void fusionner(ListeDoublementChainee... autres) {
+        ListeDoublementChainee[] listes =
+                new ListeDoublementChainee[autres.length + 1];
+        listes[0] = this;
+        System.arraycopy(autres, 0, listes, 1, autres.length);
+
+        // The first node of each list that is not merged yet
+        Noeud[] tetes = new Noeud[listes.length];
+        // The lists that still have nodes, ordered by their first node, then
+        // by their position so equal items keep their order.
+        PriorityQueue<Integer> tas = new PriorityQueue<>(listes.length,
+                (i, j) -> {
+                    int comparaison = ordre(tetes[i].item, tetes[j].item);
+                    return comparaison != 0 ? comparaison
+                            : Integer.compare(i, j);
+                });
+
+        // We check every list before changing any of them
+        for (int i = 0; i < listes.length; i++) {
+            if (!listes[i].sens.equals(sens))
+                throw new IllegalArgumentException(
+                        "Les listes à fusionner n'ont pas le même sens");
+            for (int j = 0; j < i; j++)
+                if (listes[j] == listes[i])
+                    throw new IllegalArgumentException(
+                            "Une liste est donnée plus d'une fois");
+        }
+
+        int total = 0;
+        for (int i = 0; i < listes.length; i++) {
+            ListeDoublementChainee liste = listes[i];
+            tetes[i] = liste.premier;
+            if (tetes[i] != null)
+                tas.add(i);
+            total += liste.taille;
+            contientTexte |= liste.contientTexte;
+            contientNombre |= liste.contientNombre;
+            contientNaN |= liste.contientNaN;
+
+            // The nodes now belong to the merged chain
+            liste.premier = liste.dernier = liste.doigt = null;
+            liste.taille = 0;
+            if (liste != this)
+                liste.contientTexte = liste.contientNombre =
+                        liste.contientNaN = false;
+        }
+
+        while (!tas.isEmpty()) {
+            int i = tas.poll();
+            Noeud node = tetes[i];
+
+            // If it is the last list with nodes, we link all of them at once
+            Noeud fin = node;
+            if (tas.isEmpty()) {
+                while (fin.suivant != null)
+                    fin = fin.suivant;
+                tetes[i] = null;
+            } else {
+                tetes[i] = node.suivant;
+                node.suivant = null;
+                if (tetes[i] != null)
+                    tas.add(i);
+            }
+
+            // In counted mode, the first node may hold the same value as the
+            // last node of the merged chain.
+            if (compte && dernier != null && dernier.item.getValeur()
+                    .equals(node.item.getValeur())) {
+                dernier.nombre += node.nombre;
+                if (node == fin)
+                    continue;
+                node = node.suivant;
+            }
+
+            node.precedent = dernier;
+            if (dernier == null)
+                premier = node;
+            else
+                dernier.suivant = node;
+            dernier = fin;
+        }
+
+        taille = total;
+        doigt = dernier;
+    }
+
     /**
      * This method is used to print the list from beginning to the end.
      */
     @Override
     public void imprimerListeDuDebut() {
+        imprimerListeDuDebut(System.out);
+    }
+
+    /**
+     * This method is used to print the list from beginning to the end in the
+     * given stream, so that a list can be printed somewhere else than in the
+     * console (ex: by the parallel driver in Main).
+     * 
+     * @param out The stream in which the list is printed.
+     */
+    public void imprimerListeDuDebut(PrintStream out) {
         // We initialize a variable to the first node.
         Noeud node = this.premier;
 
+        // An empty list (ex: after removing its items) only has its title
+        if (node == null) {
+            out.println("Noeuds du debut vers la fin: ");
+            return;
+        }
+
         // We print the first node
-        System.out.print(
-                "Noeuds du debut vers la fin: " + node.item.getValeur());
+        out.print("Noeuds du debut vers la fin: " + node.item.getValeur());
+        // In counted mode, we also print the other copies of the item
+        out.print(("->" + node.item.getValeur()).repeat(node.nombre - 1));
 
         // We loop through the list to print each node in order.
         while (node.suivant != null) {
             node = node.suivant;
-            System.out.print("->" + node.item.getValeur());
+            out.print(("->" + node.item.getValeur()).repeat(node.nombre));
         }
-        System.out.println();
+        out.println();
     }
 
     /**
@@ -190,17 +788,34 @@ public class ListeDoublementChainee implements IListeDoublementChainee {
      */
     @Override
     public void imprimerListeDeLaFin() {
+        imprimerListeDeLaFin(System.out);
+    }
+
+    /**
+     * This method is used to print the list from the end to the beginning in
+     * the given stream.
+     * 
+     * @param out The stream in which the list is printed.
+     */
+    public void imprimerListeDeLaFin(PrintStream out) {
         // We initialize a variable to the last node.
         Noeud node = this.dernier;
 
+        // An empty list only has its title
+        if (node == null) {
+            out.print("Noeuds de la fin vers le debut: ");
+            return;
+        }
+
         // We print the last node
-        System.out.print(
-                "Noeuds de la fin vers le debut: " + node.item.getValeur());
+        out.print("Noeuds de la fin vers le debut: " + node.item.getValeur());
+        // In counted mode, we also print the other copies of the item
+        out.print(("->" + node.item.getValeur()).repeat(node.nombre - 1));
 
         // We loop through the list to print each node in order.
         while (node.precedent != null) {
             node = node.precedent;
-            System.out.print("->" + node.item.getValeur());
+            out.print(("->" + node.item.getValeur()).repeat(node.nombre));
         }
     }
 }
@@ -1,6 +1,15 @@
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class Main {
     /**
@@ -35,49 +44,219 @@ public class Main {
         return true;
     }
 
+    /**
+     * Traite les lignes du fichier une après l'autre. On lit le fichier avec
+     * LecteurListes, donc les listes ne sont jamais gardées au complet en
+     * mémoire sous forme de String, peu importe la longueur de leur ligne.
+     * Si un pool est donné, chaque liste est construite avec un tri fusion
+     * parallèle au lieu d'insérer ses éléments un à la fois. Avec une arène,
+     * on réutilise plutôt la même ListeArene pour toutes les lignes. En mode
+     * compté, les copies d'une même valeur partagent un seul noeud.
+     *
+     * @param fichier est le fichier d'entrée.
+     * @param pool    est le pool utilisé pour trier chaque liste, ou null
+     *                pour insérer les éléments un à la fois.
+     * @param arene   est vrai pour construire les listes dans une ListeArene.
+     * @param compte  est vrai pour construire les listes en mode compté.
+     * @throws IOException si le fichier ne peut pas être lu.
+     */
+    static void traiterSequentiel(Path fichier, ForkJoinPool pool,
+            boolean arene, boolean compte) throws IOException {
+        ListeArene liste = null;
+        try (LecteurListes lecteur = new LecteurListes(fichier)) {
+            while (lecteur.prochaineLigne()) {
+                System.out.println("----------");
+                String sens = lecteur.lireSens();
+                System.out.println("Sens du tri: " + sens);
+                System.out.print("Liste originale: ");
+
+                /**
+                 * Cette fonction ajoute tous les elements de la liste de la
+                 * ligne courante dans la liste doublement chainee, au fur et
+                 * a mesure qu'ils sont lus. La liste originale est imprimee
+                 * en meme temps, morceau par morceau.
+                 */
+                IListeDoublementChainee ldc;
+                if (arene) {
+                    // La même arène sert pour toutes les lignes
+                    if (liste == null)
+                        liste = new ListeArene(sens);
+                    else
+                        liste.vider(sens);
+                    lecteur.lireListe(liste::ajouterNoeud, System.out::print);
+                    ldc = liste;
+                } else if (pool == null) {
+                    ldc = new ListeDoublementChainee(sens, compte);
+                    lecteur.lireListe(ldc::ajouterNoeud, System.out::print);
+                } else {
+                    ListeDoublementChainee triee =
+                            new ListeDoublementChainee(sens, compte);
+                    List<Item<?>> items = new ArrayList<>();
+                    lecteur.lireListe(items::add, System.out::print);
+                    triee.ajouterItemsParallele(
+                            items.toArray(new Item<?>[0]), pool);
+                    ldc = triee;
+                }
+                System.out.println();
+
+                /**
+                 * Ces fonctions impriment du début vers la fin, ou de la
+                 * fin vers le début le contenu de la liste doublement
+                 * chainée avec le format présenté dans l'énoncé.
+                 * 
+                 * @param listeEnString Exemple: '[1,2,3]'
+                 */
+                ldc.imprimerListeDuDebut();
+                ldc.imprimerListeDeLaFin();
+
+                System.out.println("\n----------");
+            }
+        }
+    }
+
+    /**
+     * Trie la liste d'une ligne et retourne ce qui doit être imprimé pour
+     * cette ligne, dans le même format que traiterSequentiel. Le début de la
+     * ligne (le sens et la liste originale) a déjà été imprimé dans le
+     * tampon pendant la lecture.
+     *
+     * @param tampon reçoit ce qui est imprimé pour la ligne.
+     * @param out    imprime dans le tampon.
+     * @param sens   est le sens du tri de la ligne.
+     * @param items  sont les éléments de la liste, dans l'ordre de la ligne.
+     * @return le texte à imprimer pour cette ligne.
+     */
+    private static byte[] traiterLigne(ByteArrayOutputStream tampon,
+            PrintStream out, String sens, List<Item<?>> items) {
+        ListeDoublementChainee ldc = new ListeDoublementChainee(sens);
+        for (Item<?> item : items)
+            ldc.ajouterNoeud(item);
+        ldc.imprimerListeDuDebut(out);
+        ldc.imprimerListeDeLaFin(out);
+
+        out.println("\n----------");
+        out.flush();
+        return tampon.toByteArray();
+    }
+
+    /**
+     * Traite les lignes du fichier en parallèle sur un ForkJoinPool. Les
+     * résultats sont imprimés dans l'ordre des lignes: on garde les tâches en
+     * cours dans une file et on imprime toujours la plus vieille en premier.
+     * Comme la file ne peut pas contenir plus de maxEnCours lignes, la
+     * mémoire utilisée ne dépend pas de la taille du fichier. Les lignes sont
+     * lues avec LecteurListes, comme dans traiterSequentiel, donc une ligne
+     * n'est jamais gardée au complet sous forme de String: on garde
+     * seulement ses éléments et ce qui doit être imprimé pour elle.
+     *
+     * @param fichier est le fichier d'entrée.
+     * @param fils    est le nombre de fils d'exécution à utiliser.
+     * @throws IOException si le fichier ne peut pas être lu.
+     */
+    static void traiterParallele(Path fichier, int fils)
+            throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(fils);
+        int maxEnCours = 4 * fils;
+        Queue<ForkJoinTask<byte[]>> enCours = new ArrayDeque<>();
+
+        try (LecteurListes lecteur = new LecteurListes(fichier)) {
+            while (lecteur.prochaineLigne()) {
+                // On attend la plus vieille ligne si la file est pleine
+                if (enCours.size() >= maxEnCours)
+                    System.out.write(enCours.poll().join());
+
+                // Le début de la ligne est imprimé dans son tampon pendant
+                // qu'on la lit, et la liste est triée par le pool
+                ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+                PrintStream out = new PrintStream(tampon);
+                out.println("----------");
+                String sens = lecteur.lireSens();
+                out.println("Sens du tri: " + sens);
+                out.print("Liste originale: ");
+                List<Item<?>> items = new ArrayList<>();
+                lecteur.lireListe(items::add, out::print);
+                out.println();
+
+                enCours.add(pool.submit(
+                        () -> traiterLigne(tampon, out, sens, items)));
+            }
+
+            // On imprime les lignes qui restent
+            while (!enCours.isEmpty())
+                System.out.write(enCours.poll().join());
+            System.out.flush();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     public static void main(String[] args) {
-        try {
-            File myObj = new File("./assets/input.txt");
-            Scanner myReader = new Scanner(myObj);
-            while (myReader.hasNextLine()) {
-                String line = myReader.nextLine();
-                if (!line.isEmpty()) {
-                    System.out.println("----------");
-                    String[] colonne = line.split(" ");
-                    String sens = colonne[0];
-                    String listeEnString = colonne[1];
-                    System.out.println("Sens du tri: " + sens);
-                    System.out.println("Liste originale: " + listeEnString);
-
-                    ListeDoublementChainee ldc =
-                            new ListeDoublementChainee(sens);
-
-                    /**
-                     * Cette fonction doit ajouter tous les elements d'une
-                     * liste en string dans la liste doublement chainee. Vous
-                     * devez recuperer chaque element de la liste et utiliser
-                     * le bon cast sur celui-ci pour ensuite pouvoir comparer
-                     * les differents types.
-                     * 
-                     * @param listeEnString Exemple: '[1,2,3]'
-                     */
-                    ldc.ajouterListe(listeEnString);
-
-                    /**
-                     * Ces fonctions impriment du début vers la fin, ou de la
-                     * fin vers le début le contenu de la liste doublement
-                     * chainée avec le format présenté dans l'énoncé.
-                     * 
-                     * @param listeEnString Exemple: '[1,2,3]'
-                     */
-                    ldc.imprimerListeDuDebut();
-                    ldc.imprimerListeDeLaFin();
-
-                    System.out.println("\n----------");
+        boolean parallele = false;
+        boolean triParallele = false;
+        boolean arene = false;
+        boolean compte = false;
+        int fils = Runtime.getRuntime().availableProcessors();
+
+        Iterator<String> argsIterator = Arrays.stream(args).iterator();
+        while (argsIterator.hasNext()) {
+            var next = argsIterator.next();
+            switch (next) {
+                case "--parallele" -> parallele = true;
+                case "--tri-parallele" -> triParallele = true;
+                case "--arene" -> arene = true;
+                case "--compte" -> compte = true;
+                case "--fils" -> {
+                    String valeur =
+                            argsIterator.hasNext() ? argsIterator.next() : null;
+                    fils = isInteger(valeur) ? Integer.parseInt(valeur) : 0;
+                    if (fils < 1) {
+                        System.out.println("erreur: l'option --fils demande"
+                                + " un nombre de fils positif");
+                        return;
+                    }
+                }
+                default -> {
+                    System.out.println(
+                            "erreur: option inconnue \"" + next + "\"");
+                    return;
                 }
             }
-            myReader.close();
-        } catch (FileNotFoundException e) {
+        }
+
+        // Le traitement des lignes en parallèle ne construit que des listes
+        // ordinaires, et le tri parallèle n'utilise pas d'arène. ListeArene
+        // n'a pas de mode compté.
+        String[] incompatibles = null;
+        if (parallele && triParallele)
+            incompatibles = new String[] { "--parallele", "--tri-parallele" };
+        else if (parallele && compte)
+            incompatibles = new String[] { "--parallele", "--compte" };
+        else if (parallele && arene)
+            incompatibles = new String[] { "--parallele", "--arene" };
+        else if (triParallele && arene)
+            incompatibles = new String[] { "--tri-parallele", "--arene" };
+        else if (arene && compte)
+            incompatibles = new String[] { "--arene", "--compte" };
+        if (incompatibles != null) {
+            System.out.println("erreur: les options \"" + incompatibles[0]
+                    + "\" et \"" + incompatibles[1] + "\" sont incompatibles");
+            return;
+        }
+
+        Path fichier = Path.of("./assets/input.txt");
+        try {
+            if (parallele)
+                traiterParallele(fichier, fils);
+            else if (triParallele) {
+                ForkJoinPool pool = new ForkJoinPool(fils);
+                try {
+                    traiterSequentiel(fichier, pool, false, compte);
+                } finally {
+                    pool.shutdown();
+                }
+            } else
+                traiterSequentiel(fichier, null, arene, compte);
+        } catch (IOException e) {
             System.out.println("Une erreur est survenue.");
             e.printStackTrace();
         }
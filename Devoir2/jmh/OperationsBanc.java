@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Les opérations mesurées par les bancs JMH du paquet banc, qui ne peuvent
+ * pas utiliser directement les classes du paquet par défaut.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class OperationsBanc implements banc.Operations {
+
+    /**
+     * Un flux qui ne fait que compter les octets qu'on y écrit.
+     */
+    private static final class Compteur extends OutputStream {
+        private long octets;
+
+        @Override
+        public void write(int b) {
+            octets++;
+        }
+
+        @Override
+        public void write(byte[] b, int debut, int longueur) {
+            octets += longueur;
+        }
+    }
+
+    @Override
+    public Object[] creerItems(String[] elements) {
+        Item<?>[] items = new Item<?>[elements.length];
+        for (int i = 0; i < elements.length; i++)
+            items[i] = ListeDoublementChainee.creerItem(elements[i]);
+        return items;
+    }
+
+    @Override
+    public Object ajouterNoeud(Object[] items) {
+        ListeDoublementChainee ldc = new ListeDoublementChainee("asc");
+        for (Object item : items)
+            ldc.ajouterNoeud((Item<?>) item);
+        return ldc;
+    }
+
+    @Override
+    public Object ajouterListe(String listeEnString) {
+        ListeDoublementChainee ldc = new ListeDoublementChainee("asc");
+        ldc.ajouterListe(listeEnString);
+        return ldc;
+    }
+
+    @Override
+    public Object[] itemsDuDebut(Object liste) {
+        ListeDoublementChainee ldc = (ListeDoublementChainee) liste;
+        Object[] items = new Object[ldc.taille()];
+        Iterator<Item<?>> curseur = ldc.curseurDuDebut();
+        for (int i = 0; i < items.length; i++)
+            items[i] = curseur.next();
+        return items;
+    }
+
+    @Override
+    public Object ajouterItemsParallele(Object[] items, ForkJoinPool pool) {
+        ListeDoublementChainee ldc = new ListeDoublementChainee("asc");
+        ldc.ajouterItemsParallele((Item<?>[]) items, pool);
+        return ldc;
+    }
+
+    @Override
+    public int comparer(Object item, Object autre) {
+        return ((Item<?>) item).compareTo(autre);
+    }
+
+    @Override
+    public long imprimer(Object liste) {
+        Compteur compteur = new Compteur();
+        PrintStream out = new PrintStream(compteur);
+        ((ListeDoublementChainee) liste).imprimerListeDuDebut(out);
+        ((ListeDoublementChainee) liste).imprimerListeDeLaFin(out);
+        out.flush();
+        return compteur.octets;
+    }
+
+    @Override
+    public long traiterFichier(Path fichier, int fils) throws IOException {
+        // Main imprime dans System.out, qu'on remplace le temps du traitement
+        Compteur compteur = new Compteur();
+        PrintStream sortie = System.out;
+        System.setOut(new PrintStream(compteur));
+        try {
+            if (fils == 0)
+                Main.traiterSequentiel(fichier, null, false, false);
+            else
+                Main.traiterParallele(fichier, fils);
+        } finally {
+            System.out.flush();
+            System.setOut(sortie);
+        }
+        return compteur.octets;
+    }
+}
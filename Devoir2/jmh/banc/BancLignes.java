@@ -0,0 +1,93 @@
+package banc;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Banc JMH du traitement d'un fichier de 100 000 lignes par Main, une ligne
+ * après l'autre ou avec --parallele selon le nombre de fils. Le fichier est
+ * créé avec une graine fixe, dans le même format que assets/input.txt: un
+ * sens et une liste d'entiers, de doubles ou de strings par ligne. Ce que
+ * Main imprime est seulement compté, pour ne mesurer que le traitement.
+ *
+ * Avec fils = 0, les lignes sont traitées une après l'autre, comme sans
+ * --parallele, ce qui sert de référence pour les autres. Il faut une machine
+ * d'au moins 8 coeurs pour voir le gain avec 8 fils.
+ *
+ * @author Nicolas Levasseur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BancLignes {
+    @Param({ "100000" })
+    public int lignes;
+
+    @Param({ "30", "300" })
+    public int elements;
+
+    @Param({ "0", "1", "2", "4", "8" })
+    public int fils;
+
+    private Operations operations;
+    private Path fichier;
+
+    /**
+     * Écrit le fichier d'entrée du banc dans un fichier temporaire.
+     */
+    @Setup(Level.Trial)
+    public void preparer() throws ReflectiveOperationException, IOException {
+        operations = Operations.charger();
+
+        Random rnd = new Random(42);
+        fichier = Files.createTempFile("banc-lignes", ".txt");
+        try (BufferedWriter out = Files.newBufferedWriter(fichier)) {
+            for (int l = 0; l < lignes; l++) {
+                out.write(rnd.nextBoolean() ? "asc [" : "desc [");
+                int type = rnd.nextInt(3);
+                for (int e = 0; e < elements; e++) {
+                    if (e > 0)
+                        out.write(',');
+                    out.write(switch (type) {
+                        case 0 -> Integer.toString(rnd.nextInt(100));
+                        case 1 -> Double.toString(rnd.nextInt(10000) / 100.0);
+                        default -> "mot" + rnd.nextInt(100);
+                    });
+                }
+                out.write("]");
+                out.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() throws IOException {
+        Files.deleteIfExists(fichier);
+    }
+
+    @Benchmark
+    public long traiterFichier() throws IOException {
+        return operations.traiterFichier(fichier, fils);
+    }
+}
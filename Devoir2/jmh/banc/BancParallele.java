@@ -0,0 +1,85 @@
+package banc;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Banc JMH de ajouterItemsParallele selon le nombre de fils du ForkJoinPool,
+ * pour voir comment le tri fusion profite des coeurs. Les listes ont au moins
+ * un million d'éléments, bien plus que le seuil sous lequel TriFusion trie
+ * une partie sans la couper, donc le tri se divise vraiment entre les fils.
+ * Les mélanges sont ceux dont l'ordre est transitif (entiers, doubles ou
+ * strings), car un mélange de textes et de nombres est ajouté un à la fois
+ * par ajouterNoeud et ne passe pas par le tri.
+ *
+ * Avec fils = 1, on a le temps du même tri sur un seul fil, qui sert de
+ * référence pour les autres.
+ *
+ * @author Nicolas Levasseur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BancParallele {
+    @Param({ "entiers", "doubles", "strings" })
+    public String melange;
+
+    @Param({ "1000000", "4000000" })
+    public int taille;
+
+    @Param({ "1", "2", "4", "8" })
+    public int fils;
+
+    private Operations operations;
+    private Object[] items;
+    private ForkJoinPool pool;
+
+    /**
+     * Crée les items de la liste pour le mélange de types du banc, avec une
+     * graine fixe, et le pool avec le nombre de fils demandé.
+     */
+    @Setup(Level.Trial)
+    public void preparer() throws ReflectiveOperationException {
+        operations = Operations.charger();
+
+        Random rnd = new Random(42);
+        String[] elements = new String[taille];
+        for (int i = 0; i < taille; i++)
+            elements[i] = switch (melange) {
+                case "entiers" -> Integer.toString(rnd.nextInt(taille));
+                case "doubles" -> Double.toString(rnd.nextInt(taille) / 100.0);
+                default -> "mot" + rnd.nextInt(taille);
+            };
+
+        items = operations.creerItems(elements);
+        pool = new ForkJoinPool(fils);
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object ajouterItemsParallele() {
+        return operations.ajouterItemsParallele(items.clone(), pool);
+    }
+}
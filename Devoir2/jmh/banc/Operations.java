@@ -0,0 +1,51 @@
+package banc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Les opérations de la liste mesurées par les bancs. La liste est dans le
+ * paquet par défaut, qu'on ne peut pas importer, et JMH refuse les bancs de
+ * ce paquet. Les opérations sont donc faites par la classe OperationsBanc du
+ * paquet par défaut, chargée par son nom, et les listes et les items passent
+ * par Object.
+ *
+ * @author Nicolas Levasseur
+ */
+public interface Operations {
+    /**
+     * Charge les opérations du paquet par défaut.
+     *
+     * @return les opérations de la liste.
+     */
+    static Operations charger() throws ReflectiveOperationException {
+        return (Operations) Class.forName("OperationsBanc")
+                .getDeclaredConstructor().newInstance();
+    }
+
+    // Crée les items des éléments, comme ajouterListe le fait
+    Object[] creerItems(String[] elements);
+
+    // Crée une liste en ajoutant les items un à la fois avec ajouterNoeud
+    Object ajouterNoeud(Object[] items);
+
+    // Crée une liste avec ajouterListe
+    Object ajouterListe(String listeEnString);
+
+    // Retourne les items de la liste, du début vers la fin
+    Object[] itemsDuDebut(Object liste);
+
+    // Crée une liste avec ajouterItemsParallele
+    Object ajouterItemsParallele(Object[] items, ForkJoinPool pool);
+
+    // Compare deux items avec Item.compareTo
+    int comparer(Object item, Object autre);
+
+    // Imprime la liste dans les deux sens et retourne le nombre d'octets
+    long imprimer(Object liste);
+
+    // Traite le fichier comme Main, une ligne après l'autre si fils est 0 ou
+    // avec --parallele sinon, et retourne le nombre d'octets imprimés
+    long traiterFichier(Path fichier, int fils) throws IOException;
+}
@@ -0,0 +1,294 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Ce programme mesure le temps des opérations principales de la liste
+ * doublement chainée (ajouterNoeud, ajouterListe, Item.compareTo, impression
+ * et sérialisation) pour chaque mélange de types (entiers, doubles, strings ou
+ * un mélange des trois). Chaque mesure est répétée plusieurs fois après un
+ * réchauffement et on garde la médiane. Les résultats sont affichés et écrits
+ * dans un fichier JSON qui peut être gardé et comparé d'une version à l'autre
+ * pour voir si la liste est devenue plus lente.
+ *
+ * L'écriture et la lecture sont mesurées séparément, avec la sérialisation de
+ * Java (writeObject et readObject) et avec ecrireDans et lireDe, et les bancs
+ * d'écriture donnent aussi le nombre d'octets produits. Elles sont mesurées
+ * une seconde fois sur une grande liste, construite sans passer par
+ * ajouterNoeud, qui serait quadratique pour un mélange de textes et de
+ * nombres.
+ *
+ * Options: --taille N (éléments par liste), --grande G (éléments de la grande
+ * liste, 1 000 000 par défaut, 0 pour ne pas la mesurer), --essais K (mesures
+ * par banc) et --sortie fichier (fichier JSON des résultats, banc.json par
+ * défaut).
+ *
+ * @author Nicolas Levasseur
+ */
+public class BancEssai {
+	// Mélanges de types mesurés pour chaque banc
+	private static final String[] MELANGES =
+			{ "entiers", "doubles", "strings", "melange" };
+	// Nombre de fois que compareTo passe sur toutes les paires d'un essai
+	private static final int PASSES_COMPARAISON = 50;
+
+	// Reçoit le résultat de chaque essai pour que le JIT ne puisse pas
+	// retirer le code mesuré.
+	private static volatile long puits;
+
+	/**
+	 * Un banc mesuré: exécute une fois l'opération et retourne une valeur qui
+	 * en dépend.
+	 */
+	private interface Banc {
+		long executer() throws Exception;
+	}
+
+	/**
+	 * Un banc avec son nom et le nombre d'opérations faites à chaque essai,
+	 * qui sert à calculer le temps par opération. Pour un banc d'écriture,
+	 * octets est la taille de la liste écrite, sinon il est 0.
+	 */
+	private record Mesure(String nom, Banc banc, int operations, long octets) {
+		Mesure(String nom, Banc banc, int operations) {
+			this(nom, banc, operations, 0);
+		}
+	}
+
+	/**
+	 * Crée les éléments d'une liste, sous forme de String comme dans le
+	 * fichier d'entrée, pour un mélange de types.
+	 *
+	 * @param melange est le mélange de types voulu.
+	 * @param taille  est le nombre d'éléments.
+	 * @param rnd     est le générateur utilisé.
+	 * @return les éléments de la liste.
+	 */
+	private static String[] creerElements(String melange, int taille,
+			Random rnd) {
+		String[] elements = new String[taille];
+		for (int i = 0; i < taille; i++) {
+			int type = switch (melange) {
+				case "entiers" -> 0;
+				case "doubles" -> 1;
+				case "strings" -> 2;
+				default -> rnd.nextInt(3);
+			};
+			elements[i] = switch (type) {
+				case 0 -> Integer.toString(rnd.nextInt(1000));
+				case 1 -> Double.toString(rnd.nextInt(100000) / 100.0);
+				default -> "mot" + rnd.nextInt(1000);
+			};
+		}
+		return elements;
+	}
+
+	/**
+	 * Exécute un banc: quelques essais de réchauffement, puis les essais
+	 * mesurés. On garde la médiane, moins sensible aux pauses du
+	 * ramasse-miettes que la moyenne.
+	 *
+	 * @return la médiane en nanosecondes d'un essai.
+	 */
+	private static long mesurer(Banc banc, int essais) throws Exception {
+		for (int i = 0; i < essais; i++)
+			puits += banc.executer();
+
+		long[] temps = new long[essais];
+		for (int i = 0; i < essais; i++) {
+			long debut = System.nanoTime();
+			puits += banc.executer();
+			temps[i] = System.nanoTime() - debut;
+		}
+		Arrays.sort(temps);
+		return temps[essais / 2];
+	}
+
+	// Écrit la liste avec la sérialisation de Java
+	private static byte[] serialiser(ListeDoublementChainee liste)
+			throws IOException {
+		ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(octets)) {
+			out.writeObject(liste);
+		}
+		return octets.toByteArray();
+	}
+
+	/**
+	 * Crée les bancs de l'écriture et de la lecture d'une liste, avec la
+	 * sérialisation de Java et avec ecrireDans et lireDe. La liste est écrite
+	 * une première fois pour connaître sa taille et avoir ce que les bancs de
+	 * lecture relisent.
+	 *
+	 * @param liste est la liste écrite et relue.
+	 * @return les quatre bancs.
+	 */
+	private static Mesure[] mesuresEncodage(ListeDoublementChainee liste)
+			throws IOException {
+		int n = liste.taille();
+		byte[] serialisee = serialiser(liste);
+		ByteBuffer ecrit = ByteBuffer.allocate(64 * n + 64);
+		liste.ecrireDans(ecrit);
+		ecrit.flip();
+		// Le tampon des bancs d'écriture est alloué une seule fois, pour ne
+		// pas mesurer sa mise à zéro
+		ByteBuffer tampon = ByteBuffer.allocate(ecrit.limit());
+
+		return new Mesure[] {
+			new Mesure("writeObject", () -> {
+				ByteArrayOutputStream octets = new ByteArrayOutputStream();
+				try (ObjectOutputStream out = new ObjectOutputStream(octets)) {
+					out.writeObject(liste);
+				}
+				return octets.size();
+			}, n, serialisee.length),
+			new Mesure("readObject", () -> {
+				try (ObjectInputStream in = new ObjectInputStream(
+						new ByteArrayInputStream(serialisee))) {
+					return ((ListeDoublementChainee) in.readObject()).taille();
+				}
+			}, n),
+			new Mesure("ecrireDans", () -> {
+				tampon.clear();
+				liste.ecrireDans(tampon);
+				return tampon.position();
+			}, n, ecrit.limit()),
+			new Mesure("lireDe", () -> ListeDoublementChainee
+					.lireDe(ecrit.duplicate()).taille(), n),
+		};
+	}
+
+	/**
+	 * Exécute les bancs, affiche leurs résultats et les ajoute aux résultats
+	 * écrits dans le fichier JSON.
+	 */
+	private static void executer(Mesure[] mesures, String melange, int taille,
+			int essais, List<String> resultats) throws Exception {
+		for (Mesure mesure : mesures) {
+			long mediane = mesurer(mesure.banc(), essais);
+			double nsParOperation = (double) mediane / mesure.operations();
+			String octets = "";
+			String octetsJson = "";
+			if (mesure.octets() > 0) {
+				octets = String.format(Locale.ROOT, " %12d octets %6.1f/élément",
+						mesure.octets(), (double) mesure.octets() / taille);
+				octetsJson = ", \"octets\": " + mesure.octets();
+			}
+			System.out.printf("%-14s %-8s %8d %12d ns %10.1f ns/op%s%n",
+					mesure.nom(), melange, taille, mediane, nsParOperation,
+					octets);
+			resultats.add(String.format(Locale.ROOT,
+					"  {\"banc\": \"%s\", \"melange\": \"%s\", "
+							+ "\"taille\": %d, \"essais\": %d, "
+							+ "\"nsMediane\": %d, "
+							+ "\"nsParOperation\": %.3f%s}",
+					mesure.nom(), melange, taille, essais, mediane,
+					nsParOperation, octetsJson));
+		}
+	}
+
+	// Construit une liste en ajoutant les items un à la fois
+	private static ListeDoublementChainee construire(Item<?>[] items) {
+		ListeDoublementChainee ldc = new ListeDoublementChainee("asc");
+		for (Item<?> item : items)
+			ldc.ajouterNoeud(item);
+		return ldc;
+	}
+
+	public static void main(String[] args) {
+		int taille = 2000;
+		int grande = 1_000_000;
+		int essais = 10;
+		Path fichier = Path.of("banc.json");
+
+		Iterator<String> argsIterator = Arrays.stream(args).iterator();
+		while (argsIterator.hasNext()) {
+			var next = argsIterator.next();
+			switch (next) {
+				case "--taille" -> taille =
+						Integer.parseInt(argsIterator.next());
+				case "--grande" -> grande =
+						Integer.parseInt(argsIterator.next());
+				case "--essais" -> essais =
+						Integer.parseInt(argsIterator.next());
+				case "--sortie" -> fichier = Path.of(argsIterator.next());
+				default -> {
+					System.out.println(
+							"erreur: option inconnue \"" + next + "\"");
+					return;
+				}
+			}
+		}
+
+		List<String> resultats = new ArrayList<>();
+		Random rnd = new Random(42);
+		try {
+			for (String melange : MELANGES) {
+				String[] elements = creerElements(melange, taille, rnd);
+				String listeEnString =
+						"[" + String.join(",", elements) + "]";
+				Item<?>[] items = new Item<?>[taille];
+				for (int i = 0; i < taille; i++)
+					items[i] = ListeDoublementChainee.creerItem(elements[i]);
+				ListeDoublementChainee triee = construire(items);
+				final int n = taille;
+
+				Mesure[] mesures = {
+					new Mesure("ajouterNoeud",
+							() -> construire(items).taille(), n),
+					new Mesure("ajouterListe", () -> {
+						ListeDoublementChainee ldc =
+								new ListeDoublementChainee("asc");
+						ldc.ajouterListe(listeEnString);
+						return ldc.taille();
+					}, n),
+					new Mesure("compareTo", () -> {
+						long somme = 0;
+						for (int p = 0; p < PASSES_COMPARAISON; p++)
+							for (int i = 1; i < n; i++)
+								somme += items[i].compareTo(items[i - 1]);
+						return somme;
+					}, PASSES_COMPARAISON * (n - 1)),
+					new Mesure("impression", () -> triee.imprimerListeDuDebut()
+							.length() + triee.imprimerListeDeLaFin().length(),
+							n),
+				};
+				executer(mesures, melange, n, essais, resultats);
+				executer(mesuresEncodage(triee), melange, n, essais,
+						resultats);
+			}
+
+			// La grande liste est triée d'avance quand les items se comparent
+			// de façon cohérente, puis ses items sont ajoutés à la fin. Un
+			// mélange de textes et de nombres n'a pas d'ordre cohérent, ses
+			// items restent dans l'ordre où ils ont été tirés, ce qui ne change
+			// pas le temps pour les écrire ou les lire.
+			for (int i = 0; grande > 0 && i < MELANGES.length; i++) {
+				String melange = MELANGES[i];
+				String[] elements = creerElements(melange, grande, rnd);
+				Item<?>[] items = new Item<?>[grande];
+				for (int j = 0; j < grande; j++)
+					items[j] = ListeDoublementChainee.creerItem(elements[j]);
+				if (!melange.equals("melange"))
+					Arrays.sort(items);
+				executer(mesuresEncodage(
+						ListeDoublementChainee.depuisItems("asc", items)),
+						melange, grande, essais, resultats);
+			}
+
+			Files.writeString(fichier,
+					"[\n" + String.join(",\n", resultats) + "\n]\n");
+			System.out.println("Résultats écrits dans " + fichier);
+		} catch (Exception e) {
+			System.out.println("Une erreur est survenue.");
+			e.printStackTrace();
+		}
+	}
+}
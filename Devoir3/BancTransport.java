@@ -0,0 +1,330 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ce programme compare les deux transports entre LeClient et LeServeur: les
+ * ObjectOutputStream et les trames de CanalTrames, sans lots, avec des lots
+ * et avec des lots compressés. Pour chaque transport, il envoie les mêmes
+ * lignes sur une connexion locale, dans le même format que LeClient (quatre
+ * textes et une liste triée par ligne), à un receveur qui les décode comme le
+ * fait LeServeur, sans écrire output.txt. Les listes sont triées d'avance,
+ * donc seuls l'envoi et le décodage sont mesurés.
+ *
+ * Pour chaque transport, on affiche les lignes et les messages (textes et
+ * listes) par seconde, et les octets envoyés sur la connexion par seconde et
+ * par ligne. Chaque mesure est répétée après un réchauffement et on garde la
+ * médiane. Les résultats sont aussi écrits dans un fichier JSON, comme ceux
+ * de BancEssai.
+ *
+ * Options: --lignes N (10 000 par défaut), --elements E (éléments par liste,
+ * 50 par défaut), --essais K (5 par défaut), --lot L (lignes par lot, 64 par
+ * défaut) et --sortie fichier (transport.json par défaut).
+ *
+ * @author Nicolas Levasseur
+ */
+public class BancTransport {
+	// Textes et listes envoyés pour chaque ligne, comme le fait LeClient
+	private static final int MESSAGES_PAR_LIGNE = 5;
+	// Taille maximale d'un lot, la même que celle de LeClient
+	private static final int MAX_OCTETS_LOT = 1 << 20;
+	// Texte qui termine chaque ligne
+	private static final String FIN_ENREGISTREMENT = "----------\n";
+
+	/**
+	 * Une ligne à envoyer, avec sa liste déjà triée.
+	 */
+	private record Ligne(String sens, String listeEnString,
+			ListeDoublementChainee liste) {
+	}
+
+	/**
+	 * Un transport mesuré. lotLignes est 0 pour le transport par
+	 * ObjectOutputStream ou pour des trames sans lots.
+	 */
+	private record Transport(String nom, boolean nio, int lotLignes,
+			boolean compression) {
+	}
+
+	/**
+	 * Le résultat d'un envoi: sa durée, le nombre d'octets envoyés et le
+	 * nombre de lignes reçues.
+	 */
+	private record Envoi(long duree, long octets, long lignesRecues) {
+	}
+
+	/**
+	 * Compte les octets écrits dans le stream du socket.
+	 */
+	private static final class CompteurSortie extends FilterOutputStream {
+		private long octets;
+
+		CompteurSortie(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			octets++;
+		}
+
+		@Override
+		public void write(byte[] b, int debut, int longueur)
+				throws IOException {
+			out.write(b, debut, longueur);
+			octets += longueur;
+		}
+	}
+
+	/**
+	 * Crée les lignes envoyées, avec des entiers, des doubles et des strings
+	 * tirés au hasard, et trie leur liste.
+	 */
+	private static List<Ligne> creerLignes(int nombreLignes,
+			int nombreElements) {
+		Random rnd = new Random(42);
+		List<Ligne> lignes = new ArrayList<>();
+		for (int l = 0; l < nombreLignes; l++) {
+			StringBuilder liste = new StringBuilder("[");
+			for (int e = 0; e < nombreElements; e++) {
+				if (e > 0)
+					liste.append(',');
+				switch (rnd.nextInt(3)) {
+					case 0 -> liste.append(rnd.nextInt(1000));
+					case 1 -> liste.append(rnd.nextInt(100000) / 100.0);
+					default -> liste.append("mot").append(rnd.nextInt(1000));
+				}
+			}
+			liste.append(']');
+
+			String sens = rnd.nextBoolean() ? "asc" : "desc";
+			ListeDoublementChainee ldc = new ListeDoublementChainee(sens);
+			ldc.ajouterListe(liste.toString());
+			lignes.add(new Ligne(sens, liste.toString(), ldc));
+		}
+		return lignes;
+	}
+
+	/**
+	 * Envoie les lignes avec un ObjectOutputStream, comme LeClient, à un
+	 * receveur qui les lit comme LeServeur.
+	 */
+	private static Envoi envoyerObjets(List<Ligne> lignes,
+			ExecutorService receveurs) throws Exception {
+		try (
+				ServerSocket serveur = new ServerSocket(0, 1,
+						InetAddress.getLoopbackAddress())) {
+			long debut = System.nanoTime();
+			Future<Long> reception = receveurs.submit(() -> {
+				long recues = 0;
+				try (
+						Socket client = serveur.accept();
+						ObjectInputStream in = new ObjectInputStream(
+								new BufferedInputStream(
+										client.getInputStream()))) {
+					while (true) {
+						Object obj = in.readObject();
+						if (obj instanceof String s) {
+							if (s.equals(FIN_ENREGISTREMENT))
+								recues++;
+						} else
+							((IListeDoublementChainee) obj).taille();
+					}
+				} catch (EOFException eof) {
+					return recues;
+				}
+			});
+
+			CompteurSortie compteur;
+			try (
+					Socket socket = new Socket(
+							InetAddress.getLoopbackAddress(),
+							serveur.getLocalPort())) {
+				compteur = new CompteurSortie(socket.getOutputStream());
+				ObjectOutputStream writer = new ObjectOutputStream(compteur);
+				for (Ligne ligne : lignes) {
+					writer.writeObject(FIN_ENREGISTREMENT + "Sens du tri: "
+							+ ligne.sens() + "\n" + "Liste originale: ");
+					writer.writeUnshared(ligne.listeEnString());
+					writer.writeObject("\n");
+					writer.writeObject(ligne.liste());
+					writer.writeObject(FIN_ENREGISTREMENT);
+					writer.reset();
+				}
+				writer.flush();
+			}
+			long recues = reception.get();
+			return new Envoi(System.nanoTime() - debut, compteur.octets,
+					recues);
+		}
+	}
+
+	/**
+	 * Envoie les lignes avec CanalTrames, comme LeClient avec --nio, à un
+	 * receveur qui les lit comme LeServeur.
+	 */
+	private static Envoi envoyerTrames(List<Ligne> lignes,
+			Transport transport, ExecutorService receveurs) throws Exception {
+		try (
+				ServerSocketChannel serveur = ServerSocketChannel.open()) {
+			serveur.bind(new InetSocketAddress(
+					InetAddress.getLoopbackAddress(), 0));
+			long debut = System.nanoTime();
+			Future<Long> reception = receveurs.submit(() -> {
+				long recues = 0;
+				try (
+						CanalTrames trames =
+								new CanalTrames(serveur.accept())) {
+					while (true) {
+						if (trames.recevoir() == CanalTrames.LISTE)
+							ListeDoublementChainee.lireDe(trames.getContenu());
+						else if (trames.getTexte().equals(FIN_ENREGISTREMENT))
+							recues++;
+					}
+				} catch (EOFException eof) {
+					return recues;
+				}
+			});
+
+			CanalTrames trames = new CanalTrames(
+					SocketChannel.open(serveur.getLocalAddress()));
+			try (trames) {
+				if (transport.lotLignes() > 0)
+					trames.activerLots(transport.lotLignes(), MAX_OCTETS_LOT,
+							transport.compression());
+				for (Ligne ligne : lignes) {
+					trames.envoyerTexte(FIN_ENREGISTREMENT + "Sens du tri: "
+							+ ligne.sens() + "\n" + "Liste originale: ");
+					trames.envoyerTexte(ligne.listeEnString());
+					trames.envoyerTexte("\n");
+					trames.envoyerListe(ligne.liste());
+					trames.envoyerTexte(FIN_ENREGISTREMENT);
+					trames.ligneTerminee();
+				}
+			}
+			long recues = reception.get();
+			return new Envoi(System.nanoTime() - debut,
+					trames.getOctetsEnvoyes(), recues);
+		}
+	}
+
+	private static Envoi envoyer(List<Ligne> lignes, Transport transport,
+			ExecutorService receveurs) throws Exception {
+		Envoi envoi = transport.nio()
+				? envoyerTrames(lignes, transport, receveurs)
+				: envoyerObjets(lignes, receveurs);
+		if (envoi.lignesRecues() != lignes.size())
+			throw new IllegalStateException(transport.nom() + ": "
+					+ envoi.lignesRecues() + " lignes reçues sur "
+					+ lignes.size());
+		return envoi;
+	}
+
+	public static void main(String[] args) {
+		int nombreLignes = 10_000;
+		int nombreElements = 50;
+		int essais = 5;
+		int lotLignes = 64;
+		Path fichier = Path.of("transport.json");
+
+		Iterator<String> argsIterator = Arrays.stream(args).iterator();
+		while (argsIterator.hasNext()) {
+			var next = argsIterator.next();
+			switch (next) {
+				case "--lignes" -> nombreLignes =
+						Integer.parseInt(argsIterator.next());
+				case "--elements" -> nombreElements =
+						Integer.parseInt(argsIterator.next());
+				case "--essais" -> essais =
+						Integer.parseInt(argsIterator.next());
+				case "--lot" -> lotLignes =
+						Integer.parseInt(argsIterator.next());
+				case "--sortie" -> fichier = Path.of(argsIterator.next());
+				default -> {
+					System.out.println(
+							"erreur: option inconnue \"" + next + "\"");
+					return;
+				}
+			}
+		}
+		if (nombreLignes <= 0 || nombreElements <= 0 || essais <= 0
+				|| lotLignes <= 0) {
+			System.out.println("erreur: --lignes, --elements, --essais et "
+					+ "--lot doivent être positifs");
+			return;
+		}
+
+		Transport[] transports = {
+			new Transport("objets", false, 0, false),
+			new Transport("nio", true, 0, false),
+			new Transport("nio --lot " + lotLignes, true, lotLignes, false),
+			new Transport("nio --lot " + lotLignes + " --compression", true,
+					lotLignes, true),
+		};
+
+		List<Ligne> lignes = creerLignes(nombreLignes, nombreElements);
+		List<String> resultats = new ArrayList<>();
+		ExecutorService receveurs = Executors.newSingleThreadExecutor();
+		try {
+			for (Transport transport : transports) {
+				// Réchauffement, puis les essais mesurés
+				envoyer(lignes, transport, receveurs);
+				long[] durees = new long[essais];
+				long octets = 0;
+				for (int i = 0; i < essais; i++) {
+					Envoi envoi = envoyer(lignes, transport, receveurs);
+					durees[i] = envoi.duree();
+					octets = envoi.octets();
+				}
+				Arrays.sort(durees);
+				long mediane = durees[essais / 2];
+
+				double secondes = mediane / 1e9;
+				double lignesParSeconde = nombreLignes / secondes;
+				double messagesParSeconde =
+						lignesParSeconde * MESSAGES_PAR_LIGNE;
+				double octetsParSeconde = octets / secondes;
+				System.out.printf("%-28s %10.0f lignes/s %10.0f messages/s"
+						+ " %8.1f Mo/s %8.1f octets/ligne%n", transport.nom(),
+						lignesParSeconde, messagesParSeconde,
+						octetsParSeconde / 1e6,
+						(double) octets / nombreLignes);
+				resultats.add(String.format(Locale.ROOT,
+						"  {\"transport\": \"%s\", \"lignes\": %d, "
+								+ "\"elements\": %d, \"essais\": %d, "
+								+ "\"nsMediane\": %d, \"octets\": %d, "
+								+ "\"lignesParSeconde\": %.1f, "
+								+ "\"messagesParSeconde\": %.1f, "
+								+ "\"octetsParSeconde\": %.1f}",
+						transport.nom(), nombreLignes, nombreElements,
+						essais, mediane, octets, lignesParSeconde,
+						messagesParSeconde, octetsParSeconde));
+			}
+
+			Files.writeString(fichier,
+					"[\n" + String.join(",\n", resultats) + "\n]\n");
+			System.out.println("Résultats écrits dans " + fichier);
+		} catch (Exception e) {
+			System.out.println("Une erreur est survenue.");
+			e.printStackTrace();
+		} finally {
+			receveurs.shutdown();
+		}
+	}
+}
@@ -0,0 +1,437 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cette classe est un transport NIO entre LeClient et LeServeur. Chaque
+ * message est envoyé dans une trame composée d'un en-tête (le type du message
+ * et la taille du contenu) suivi du contenu. Les tampons utilisés sont des
+ * ByteBuffer directs qui sont réutilisés d'un message à l'autre, au lieu de
+ * passer par les ObjectOutputStream et ObjectInputStream.
+ *
+ * Les messages peuvent aussi être regroupés en lots: plusieurs trames sont
+ * accumulées dans une seule trame LOT (compressée avec Deflate ou non), qui
+ * est décompressée d'un seul coup à la réception. Celui qui reçoit voit les
+ * trames du lot une à une, comme si elles avaient été envoyées séparément.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class CanalTrames implements Closeable {
+	// Types de trames
+	public static final byte TEXTE = 0;
+	public static final byte LISTE = 1;
+	// Types des trames qui contiennent un lot d'autres trames
+	private static final byte LOT = 2;
+	private static final byte LOT_COMPRESSE = 3;
+
+	// Taille de l'en-tête: un octet pour le type et un int pour la taille
+	private static final int TAILLE_EN_TETE = Byte.BYTES + Integer.BYTES;
+	// Taille initiale des tampons de contenu, ils grossissent au besoin
+	private static final int TAILLE_INITIALE = 1 << 16;
+	// Taille maximale par défaut du contenu d'une trame reçue, et d'un lot
+	// une fois décompressé
+	public static final int MAX_TRAME_DEFAUT = 1 << 26;
+
+	// Le canal vers l'autre bout de la connexion
+	private final SocketChannel canal;
+	// En-tête de la trame envoyée
+	private final ByteBuffer enTeteEnvoi;
+	// Contenu de la trame envoyée
+	private ByteBuffer contenuEnvoi;
+	// En-tête de la trame reçue
+	private final ByteBuffer enTeteReception;
+	// Contenu de la trame reçue, réutilisé pour chaque message
+	private ByteBuffer contenuReception;
+	// Type de la dernière trame reçue
+	private byte typeRecu;
+	// Contenu de la dernière trame rendue à l'appelant
+	private ByteBuffer contenuCourant;
+	// Taille maximale acceptée pour le contenu d'une trame reçue
+	private int maxTrame = MAX_TRAME_DEFAUT;
+	// Nombre d'octets écrits dans le canal, en-têtes compris
+	private long octetsEnvoyes;
+
+	// Nombre de lignes et d'octets à partir desquels un lot est envoyé, 0
+	// si les lots ne sont pas utilisés
+	private int maxLignesLot;
+	private int maxOctetsLot;
+	// Trames accumulées dans le lot en cours et nombre de lignes terminées
+	private ByteBuffer lotEnvoi;
+	private int lignesDansLot;
+	// Compresseur du lot, null si les lots ne sont pas compressés
+	private Deflater compresseur;
+	// Tampon du lot compressé
+	private ByteBuffer lotCompresse;
+
+	// Lot reçu dont il reste des trames à rendre, null s'il n'y en a pas
+	private ByteBuffer lotRecu;
+	// Décompresseur et tampon des lots compressés reçus
+	private final Inflater decompresseur = new Inflater();
+	private ByteBuffer lotDecompresse;
+
+	/**
+	 * Constructeur du canal de trames.
+	 *
+	 * @param canal est le SocketChannel connecté, en mode bloquant.
+	 */
+	public CanalTrames(SocketChannel canal) {
+		this.canal = canal;
+		this.enTeteEnvoi = ByteBuffer.allocateDirect(TAILLE_EN_TETE);
+		this.contenuEnvoi = ByteBuffer.allocateDirect(TAILLE_INITIALE);
+		this.enTeteReception = ByteBuffer.allocateDirect(TAILLE_EN_TETE);
+		this.contenuReception = ByteBuffer.allocateDirect(TAILLE_INITIALE);
+	}
+
+	/**
+	 * Change la taille maximale du contenu d'une trame reçue. Une trame plus
+	 * grande est rejetée avant qu'un tampon soit alloué pour elle, donc
+	 * l'autre bout ne peut pas faire allouer plus que cette taille.
+	 *
+	 * @param maxTrame est la taille maximale en octets.
+	 */
+	public void setMaxTrame(int maxTrame) {
+		if (maxTrame < 0)
+			throw new IllegalArgumentException(
+					"La taille maximale d'une trame doit être positive");
+		this.maxTrame = maxTrame;
+	}
+
+	/**
+	 * Active l'envoi par lots. Les trames sont alors accumulées et envoyées
+	 * ensemble quand maxLignes lignes ont été terminées avec ligneTerminee()
+	 * ou quand le lot dépasse maxOctets octets.
+	 *
+	 * @param maxLignes   est le nombre de lignes par lot.
+	 * @param maxOctets   est la taille maximale d'un lot avant compression.
+	 * @param compression est vrai si les lots sont compressés avec Deflate.
+	 */
+	public void activerLots(int maxLignes, int maxOctets,
+			boolean compression) {
+		this.maxLignesLot = maxLignes;
+		this.maxOctetsLot = maxOctets;
+		this.lotEnvoi = ByteBuffer.allocateDirect(maxOctets + TAILLE_EN_TETE);
+		if (compression) {
+			this.compresseur = new Deflater(Deflater.BEST_SPEED);
+			this.lotCompresse = ByteBuffer.allocateDirect(TAILLE_INITIALE);
+		}
+	}
+
+	/**
+	 * Indique qu'une ligne du fichier a été entièrement envoyée. Envoie le
+	 * lot en cours s'il contient assez de lignes.
+	 *
+	 * @throws IOException si le canal ne peut pas être écrit.
+	 */
+	public void ligneTerminee() throws IOException {
+		if (lotEnvoi != null && ++lignesDansLot >= maxLignesLot)
+			viderLot();
+	}
+
+	/**
+	 * Envoie un String dans une trame de type TEXTE.
+	 *
+	 * @param s est le String à envoyer.
+	 * @throws IOException si le canal ne peut pas être écrit.
+	 */
+	public void envoyerTexte(String s) throws IOException {
+		byte[] octets = s.getBytes(StandardCharsets.UTF_8);
+		contenuEnvoi = assurerCapacite(contenuEnvoi, octets.length);
+		contenuEnvoi.clear();
+		contenuEnvoi.put(octets);
+		envoyer(TEXTE);
+	}
+
+	/**
+	 * Envoie une liste doublement chainée dans une trame de type LISTE. Si le
+	 * tampon est trop petit pour la liste, on double sa taille et on
+	 * recommence.
+	 *
+	 * @param liste est la liste à envoyer.
+	 * @throws IOException si le canal ne peut pas être écrit.
+	 */
+	public void envoyerListe(ListeDoublementChainee liste)
+			throws IOException {
+		while (true) {
+			contenuEnvoi.clear();
+			try {
+				liste.ecrireDans(contenuEnvoi);
+				break;
+			} catch (BufferOverflowException e) {
+				contenuEnvoi = ByteBuffer
+						.allocateDirect(contenuEnvoi.capacity() * 2);
+			}
+		}
+		envoyer(LISTE);
+	}
+
+	/**
+	 * Envoie le contenu présentement dans contenuEnvoi, dans sa propre trame
+	 * ou dans le lot en cours.
+	 *
+	 * @param type est le type de la trame.
+	 * @throws IOException si le canal ne peut pas être écrit.
+	 */
+	private void envoyer(byte type) throws IOException {
+		contenuEnvoi.flip();
+
+		// En mode lot, on ajoute la trame au lot au lieu de l'envoyer
+		if (lotEnvoi != null) {
+			int taille = TAILLE_EN_TETE + contenuEnvoi.remaining();
+			if (taille > lotEnvoi.remaining())
+				viderLot();
+			lotEnvoi = agrandir(lotEnvoi, taille);
+			lotEnvoi.put(type).putInt(contenuEnvoi.remaining())
+					.put(contenuEnvoi);
+			if (lotEnvoi.position() >= maxOctetsLot)
+				viderLot();
+			return;
+		}
+
+		ecrireTrame(type, contenuEnvoi);
+	}
+
+	/**
+	 * Envoie le lot en cours, compressé si demandé, dans une seule trame.
+	 *
+	 * @throws IOException si le canal ne peut pas être écrit.
+	 */
+	public void viderLot() throws IOException {
+		if (lotEnvoi == null || lotEnvoi.position() == 0)
+			return;
+		lotEnvoi.flip();
+
+		if (compresseur == null)
+			ecrireTrame(LOT, lotEnvoi);
+		else {
+			// On garde la taille originale au début pour que le receveur
+			// puisse préparer un tampon assez grand
+			int tailleOriginale = lotEnvoi.remaining();
+			lotCompresse = assurerCapacite(lotCompresse,
+					Integer.BYTES + tailleOriginale + 64);
+			lotCompresse.clear();
+			lotCompresse.putInt(tailleOriginale);
+
+			compresseur.reset();
+			compresseur.setInput(lotEnvoi);
+			compresseur.finish();
+			while (!compresseur.finished()) {
+				if (!lotCompresse.hasRemaining())
+					lotCompresse = agrandir(lotCompresse,
+							lotCompresse.capacity());
+				compresseur.deflate(lotCompresse);
+			}
+			lotCompresse.flip();
+			ecrireTrame(LOT_COMPRESSE, lotCompresse);
+		}
+
+		lotEnvoi.clear();
+		lignesDansLot = 0;
+	}
+
+	/**
+	 * Écrit l'en-tête et le contenu d'une trame en une seule écriture
+	 * groupée.
+	 *
+	 * @param type    est le type de la trame.
+	 * @param contenu est le contenu de la trame, prêt à être lu.
+	 * @throws IOException si le canal ne peut pas être écrit.
+	 */
+	private void ecrireTrame(byte type, ByteBuffer contenu)
+			throws IOException {
+		enTeteEnvoi.clear();
+		enTeteEnvoi.put(type).putInt(contenu.remaining()).flip();
+
+		ByteBuffer[] trame = {enTeteEnvoi, contenu};
+		while (contenu.hasRemaining() || enTeteEnvoi.hasRemaining())
+			octetsEnvoyes += canal.write(trame);
+	}
+
+	/**
+	 * @return le nombre d'octets écrits dans le canal depuis sa création,
+	 *         en-têtes compris.
+	 */
+	public long getOctetsEnvoyes() {
+		return octetsEnvoyes;
+	}
+
+	/**
+	 * Lit la prochaine trame. Son contenu est ensuite disponible avec
+	 * getContenu() jusqu'au prochain appel à recevoir().
+	 *
+	 * @return le type de la trame reçue.
+	 * @throws EOFException             si l'autre bout a fermé la connexion
+	 *                                  entre deux trames.
+	 * @throws StreamCorruptedException si une trame est incomplète ou si sa
+	 *                                  taille est invalide.
+	 * @throws IOException              si le canal ne peut pas être lu.
+	 */
+	public byte recevoir() throws IOException {
+		// On rend d'abord les trames qui restent dans le dernier lot reçu
+		if (lotRecu != null && lotRecu.hasRemaining()) {
+			if (lotRecu.remaining() < TAILLE_EN_TETE)
+				throw new StreamCorruptedException("Lot incomplet");
+			typeRecu = lotRecu.get();
+			int taille = verifierTaille(lotRecu.getInt(),
+					lotRecu.remaining());
+			contenuCourant = lotRecu.slice(lotRecu.position(), taille);
+			lotRecu.position(lotRecu.position() + taille);
+			return typeRecu;
+		}
+		lotRecu = null;
+
+		enTeteReception.clear();
+		if (!lireTout(enTeteReception) && enTeteReception.position() == 0)
+			throw new EOFException();
+		if (enTeteReception.hasRemaining())
+			throw new StreamCorruptedException("Trame incomplète");
+
+		enTeteReception.flip();
+		typeRecu = enTeteReception.get();
+		// La taille est vérifiée avant d'agrandir le tampon
+		int taille = verifierTaille(enTeteReception.getInt(), maxTrame);
+
+		contenuReception = assurerCapacite(contenuReception, taille);
+		contenuReception.clear().limit(taille);
+		if (!lireTout(contenuReception))
+			throw new StreamCorruptedException("Trame incomplète");
+		contenuReception.flip();
+		contenuCourant = contenuReception;
+
+		if (typeRecu == LOT) {
+			lotRecu = contenuReception;
+			return recevoir();
+		} else if (typeRecu == LOT_COMPRESSE) {
+			lotRecu = decompresser(contenuReception);
+			return recevoir();
+		}
+
+		return typeRecu;
+	}
+
+	/**
+	 * Décompresse un lot reçu dans un tampon réutilisé.
+	 *
+	 * @param contenu est le contenu de la trame LOT_COMPRESSE.
+	 * @return le lot décompressé, prêt à être lu.
+	 * @throws IOException si le lot est corrompu.
+	 */
+	private ByteBuffer decompresser(ByteBuffer contenu) throws IOException {
+		if (contenu.remaining() < Integer.BYTES)
+			throw new StreamCorruptedException("Lot incomplet");
+		int tailleOriginale = verifierTaille(contenu.getInt(), maxTrame);
+		if (lotDecompresse == null)
+			lotDecompresse = ByteBuffer.allocateDirect(TAILLE_INITIALE);
+		lotDecompresse = assurerCapacite(lotDecompresse, tailleOriginale);
+		lotDecompresse.clear().limit(tailleOriginale);
+
+		decompresseur.reset();
+		decompresseur.setInput(contenu);
+		try {
+			while (lotDecompresse.hasRemaining()
+					&& !decompresseur.finished())
+				if (decompresseur.inflate(lotDecompresse) == 0
+						&& decompresseur.needsInput())
+					throw new StreamCorruptedException("Lot incomplet");
+		} catch (DataFormatException e) {
+			throw new StreamCorruptedException("Lot corrompu: "
+					+ e.getMessage());
+		}
+		lotDecompresse.flip();
+		return lotDecompresse;
+	}
+
+	/**
+	 * Vérifie une taille lue dans une trame avant qu'elle serve à allouer ou
+	 * à découper un tampon.
+	 *
+	 * @param taille est la taille lue.
+	 * @param max    est la plus grande taille permise.
+	 * @return la taille, si elle est valide.
+	 * @throws StreamCorruptedException si la taille est négative ou trop
+	 *                                  grande.
+	 */
+	private static int verifierTaille(int taille, int max)
+			throws StreamCorruptedException {
+		if (taille < 0 || taille > max)
+			throw new StreamCorruptedException("Taille de trame invalide: "
+					+ taille + " (maximum " + max + ")");
+		return taille;
+	}
+
+	/**
+	 * @return le contenu de la dernière trame reçue, prêt à être lu.
+	 */
+	public ByteBuffer getContenu() {
+		return contenuCourant;
+	}
+
+	/**
+	 * @return le contenu de la dernière trame reçue décodé en String.
+	 */
+	public String getTexte() {
+		return StandardCharsets.UTF_8.decode(contenuCourant).toString();
+	}
+
+	/**
+	 * Lit dans le tampon jusqu'à ce qu'il soit plein.
+	 *
+	 * @param tampon est le tampon à remplir.
+	 * @return false si la fin du canal a été atteinte avant.
+	 * @throws IOException si le canal ne peut pas être lu.
+	 */
+	private boolean lireTout(ByteBuffer tampon) throws IOException {
+		while (tampon.hasRemaining())
+			if (canal.read(tampon) < 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Retourne un tampon direct d'au moins la capacité demandée, en
+	 * réutilisant celui donné s'il est assez grand.
+	 */
+	private static ByteBuffer assurerCapacite(ByteBuffer tampon,
+			int capacite) {
+		if (tampon.capacity() >= capacite)
+			return tampon;
+		return ByteBuffer.allocateDirect(
+				Math.max(capacite, tampon.capacity() * 2));
+	}
+
+	/**
+	 * Retourne un tampon direct avec au moins la place demandée de libre,
+	 * en copiant le contenu du tampon donné s'il faut l'agrandir.
+	 */
+	private static ByteBuffer agrandir(ByteBuffer tampon, int place) {
+		if (tampon.remaining() >= place)
+			return tampon;
+		ByteBuffer nouveau = ByteBuffer.allocateDirect(
+				Math.max(tampon.position() + place, tampon.capacity() * 2));
+		tampon.flip();
+		nouveau.put(tampon);
+		return nouveau;
+	}
+
+	/**
+	 * Envoie le lot en cours avant de fermer le canal.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			viderLot();
+		} finally {
+			canal.close();
+			decompresseur.end();
+			if (compresseur != null)
+				compresseur.end();
+		}
+	}
+}
@@ -0,0 +1,258 @@
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ce programme vérifie que LeServeur sert correctement plusieurs clients en
+ * même temps. Il démarre plusieurs clients qui envoient chacun leurs lignes
+ * au serveur en même temps, comme LeClient, puis il relit ce que le serveur
+ * a ajouté à output.txt et vérifie que:
+ *
+ * - chaque enregistrement est exactement celui d'une ligne envoyée, donc
+ * qu'aucun enregistrement n'a été coupé par celui d'un autre client;
+ *
+ * - chaque ligne envoyée a été écrite une seule fois;
+ *
+ * - les lignes d'un même client sont dans l'ordre où il les a envoyées.
+ *
+ * Chaque ligne contient un élément qui donne son client et son numéro, donc
+ * on sait toujours d'où vient un enregistrement. Le serveur doit déjà être
+ * démarré dans le dossier courant, avec ou sans --nio selon l'option donnée
+ * ici.
+ *
+ * Options: --clients N (16 par défaut), --lignes K (lignes par client, 200
+ * par défaut), --elements E (éléments par liste, 50 par défaut), --nio et
+ * --sortie fichier (le fichier du serveur, output.txt par défaut). Le
+ * programme termine avec le code 1 si une vérification échoue.
+ *
+ * @author Nicolas Levasseur
+ */
+public class ChargeClients {
+	// Nombre de lignes d'un enregistrement écrit par le serveur
+	private static final int LIGNES_ENREGISTREMENT = 6;
+	// Temps maximal d'attente pour que le serveur vide sa sortie
+	private static final long ATTENTE_MAX_MS = 30_000;
+
+	/**
+	 * Une ligne du fichier d'entrée d'un client.
+	 */
+	private record Ligne(String sens, String listeEnString) {
+	}
+
+	/**
+	 * Crée les lignes d'un client. Le premier élément de chaque liste donne
+	 * le client et le numéro de la ligne, les autres sont des entiers, des
+	 * doubles et des strings tirés au hasard.
+	 */
+	private static List<Ligne> creerLignes(int client, int nombreLignes,
+			int nombreElements) {
+		Random rnd = new Random(client);
+		List<Ligne> lignes = new ArrayList<>();
+		for (int l = 0; l < nombreLignes; l++) {
+			StringBuilder liste = new StringBuilder("[c" + client + "l" + l);
+			for (int e = 1; e < nombreElements; e++) {
+				liste.append(',');
+				switch (rnd.nextInt(3)) {
+					case 0 -> liste.append(rnd.nextInt(1000));
+					case 1 -> liste.append(rnd.nextInt(100000) / 100.0);
+					default -> liste.append("mot").append(rnd.nextInt(1000));
+				}
+			}
+			liste.append(']');
+			lignes.add(new Ligne(rnd.nextBoolean() ? "asc" : "desc",
+					liste.toString()));
+		}
+		return lignes;
+	}
+
+	// Trie la liste d'une ligne comme le fait LeClient
+	private static ListeDoublementChainee trier(Ligne ligne) {
+		ListeDoublementChainee ldc = new ListeDoublementChainee(ligne.sens());
+		ldc.ajouterListe(ligne.listeEnString());
+		return ldc;
+	}
+
+	// L'enregistrement que le serveur doit écrire pour une ligne
+	private static String enregistrement(Ligne ligne) {
+		ListeDoublementChainee ldc = trier(ligne);
+		return "----------\n" + "Sens du tri: " + ligne.sens() + "\n"
+				+ "Liste originale: " + ligne.listeEnString() + "\n"
+				+ ldc.imprimerListeDuDebut() + ldc.imprimerListeDeLaFin()
+				+ "----------\n";
+	}
+
+	/**
+	 * Envoie les lignes d'un client au serveur de la même façon que
+	 * LeClient, avec un ObjectOutputStream.
+	 */
+	private static void envoyer(List<Ligne> lignes) throws IOException {
+		try (
+				Socket socket = new Socket("127.0.0.1", Port.NUMBER)) {
+			ObjectOutputStream writer =
+					new ObjectOutputStream(socket.getOutputStream());
+			for (Ligne ligne : lignes) {
+				writer.writeObject("----------\n" + "Sens du tri: "
+						+ ligne.sens() + "\n" + "Liste originale: ");
+				writer.writeUnshared(ligne.listeEnString());
+				writer.writeObject("\n");
+				writer.writeObject(trier(ligne));
+				writer.writeObject("----------\n");
+				writer.reset();
+			}
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Envoie les lignes d'un client au serveur de la même façon que
+	 * LeClient avec l'option --nio.
+	 */
+	private static void envoyerNio(List<Ligne> lignes) throws IOException {
+		try (
+				CanalTrames trames = new CanalTrames(SocketChannel
+						.open(new InetSocketAddress("127.0.0.1", Port.NUMBER)))) {
+			for (Ligne ligne : lignes) {
+				trames.envoyerTexte("----------\n" + "Sens du tri: "
+						+ ligne.sens() + "\n" + "Liste originale: ");
+				trames.envoyerTexte(ligne.listeEnString());
+				trames.envoyerTexte("\n");
+				trames.envoyerListe(trier(ligne));
+				trames.envoyerTexte("----------\n");
+				trames.ligneTerminee();
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int nombreClients = 16;
+		int nombreLignes = 200;
+		int nombreElements = 50;
+		boolean nio = false;
+		Path fichier = Path.of("output.txt");
+
+		Iterator<String> argsIterator = Arrays.stream(args).iterator();
+		while (argsIterator.hasNext()) {
+			var next = argsIterator.next();
+			switch (next) {
+				case "--clients" -> nombreClients =
+						Integer.parseInt(argsIterator.next());
+				case "--lignes" -> nombreLignes =
+						Integer.parseInt(argsIterator.next());
+				case "--elements" -> nombreElements =
+						Integer.parseInt(argsIterator.next());
+				case "--nio" -> nio = true;
+				case "--sortie" -> fichier = Path.of(argsIterator.next());
+				default -> {
+					System.out.println(
+							"erreur: option inconnue \"" + next + "\"");
+					return;
+				}
+			}
+		}
+
+		// Chaque enregistrement attendu, avec son client et le numéro de sa
+		// ligne
+		List<List<Ligne>> lignes = new ArrayList<>();
+		Map<String, int[]> attendus = new HashMap<>();
+		long octetsAttendus = 0;
+		for (int c = 0; c < nombreClients; c++) {
+			lignes.add(creerLignes(c, nombreLignes, nombreElements));
+			for (int l = 0; l < nombreLignes; l++) {
+				String attendu = enregistrement(lignes.get(c).get(l));
+				attendus.put(attendu, new int[] { c, l });
+				octetsAttendus += attendu.length();
+			}
+		}
+
+		// Le serveur ajoute à la fin du fichier, donc on ne vérifie que ce
+		// qui vient après sa taille actuelle
+		long debut = Files.exists(fichier) ? Files.size(fichier) : 0;
+
+		// Tous les clients envoient leurs lignes en même temps
+		ExecutorService clients = Executors.newFixedThreadPool(nombreClients);
+		List<Future<?>> envois = new ArrayList<>();
+		long depart = System.nanoTime();
+		for (List<Ligne> l : lignes) {
+			boolean parNio = nio;
+			envois.add(clients.submit(() -> {
+				if (parNio)
+					envoyerNio(l);
+				else
+					envoyer(l);
+				return null;
+			}));
+		}
+		for (Future<?> envoi : envois)
+			envoi.get();
+		clients.shutdown();
+		double duree = (System.nanoTime() - depart) / 1e9;
+		System.out.printf("%d clients ont envoyé %d lignes en %.2f s%n",
+				nombreClients, nombreClients * nombreLignes, duree);
+
+		// On attend que le serveur ait vidé son tampon dans le fichier
+		long limite = System.currentTimeMillis() + ATTENTE_MAX_MS;
+		while (Files.size(fichier) - debut < octetsAttendus
+				&& System.currentTimeMillis() < limite)
+			Thread.sleep(50);
+
+		byte[] octets = Files.readAllBytes(fichier);
+		String[] lignesSortie = new String(octets, (int) debut,
+				(int) (octets.length - debut)).split("\n", -1);
+
+		// On découpe la sortie en enregistrements et on retrouve la ligne de
+		// chacun
+		int erreurs = 0;
+		int[] prochaine = new int[nombreClients];
+		int nombreEnregistrements = 0;
+		int i = 0;
+		for (; i + LIGNES_ENREGISTREMENT <= lignesSortie.length - 1;
+				i += LIGNES_ENREGISTREMENT) {
+			String lu = String.join("\n", Arrays.copyOfRange(lignesSortie, i,
+					i + LIGNES_ENREGISTREMENT)) + "\n";
+			int[] origine = attendus.remove(lu);
+			nombreEnregistrements++;
+			if (origine == null) {
+				if (++erreurs <= 10)
+					System.out.println("erreur: enregistrement inattendu ou "
+							+ "coupé à la ligne " + (i + 1) + " de la sortie");
+			} else if (origine[1] != prochaine[origine[0]]++) {
+				if (++erreurs <= 10)
+					System.out.println("erreur: la ligne " + origine[1]
+							+ " du client " + origine[0]
+							+ " n'est pas dans l'ordre");
+			}
+		}
+		if (i != lignesSortie.length - 1) {
+			erreurs++;
+			System.out.println("erreur: la sortie finit au milieu d'un "
+					+ "enregistrement");
+		}
+		if (!attendus.isEmpty()) {
+			erreurs++;
+			System.out.println("erreur: " + attendus.size()
+					+ " ligne(s) n'ont pas été écrites");
+		}
+
+		System.out.println(nombreEnregistrements
+				+ " enregistrements lus dans " + fichier);
+		if (erreurs > 0) {
+			System.out.println(erreurs + " erreur(s)");
+			System.exit(1);
+		}
+		System.out.println("aucun enregistrement n'est entremêlé");
+	}
+}
@@ -1,3 +1,5 @@
+import java.util.Iterator;
+
 public interface IListeDoublementChainee {
     public void ajouterListe(String listeEnString);
 
@@ -6,4 +8,18 @@ public interface IListeDoublementChainee {
     public String imprimerListeDuDebut();
 
     public String imprimerListeDeLaFin();
+
+    public int taille();
+
+    public Item<?> getPremier();
+
+    public Item<?> getDernier();
+
+    public Iterator<Item<?>> curseurDuDebut();
+
+    public Iterator<Item<?>> curseurDeLaFin();
+
+    public Iterable<Item<?>> entre(Item<?> debut, Item<?> fin);
+
+    public boolean retirer(Item<?> item);
 }
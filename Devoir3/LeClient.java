@@ -1,11 +1,20 @@
 import java.io.*;
 import java.net.ConnectException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Scanner;
 
 /**
  * Cette classe permet de trier une série de listes dans un fichier et de
- * passer ces listes triées à un serveur sur un port quelconque.
+ * passer ces listes triées à un serveur sur un port quelconque. Avec l'option
+ * --tri-serveur, le client envoie plutôt les lignes brutes au serveur, qui
+ * fait le tri et renvoie les résultats. Avec l'option --nio, les listes sont
+ * envoyées par trames sur un SocketChannel (voir CanalTrames). Les options
+ * --lot, --lot-octets et --compression regroupent ces trames en lots.
  * 
  * @author Nicolas Levasseur
  * @author Michalis Famelis
@@ -43,7 +52,161 @@ public class LeClient {
 		return true;
 	}
 
+	/**
+	 * Lit les réponses du serveur et les affiche jusqu'à ce que le serveur
+	 * ferme la connexion. Les réponses sont lues sur un autre fil d'exécution
+	 * que les envois pour que le client et le serveur ne se bloquent pas en
+	 * attendant chacun que l'autre lise.
+	 *
+	 * @param monSocket est le socket connecté au serveur.
+	 */
+	private static void lireReponses(Socket monSocket) {
+		try {
+			ObjectInputStream reader =
+					new ObjectInputStream(monSocket.getInputStream());
+			while (true)
+				System.out.print((String) reader.readObject());
+		} catch (EOFException eof) {
+			// Le serveur a envoyé toutes les réponses
+		} catch (IOException | ClassNotFoundException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Envoie un morceau de texte au serveur. Sert à passer la liste originale
+	 * au serveur morceau par morceau pendant sa lecture.
+	 */
+	private interface EnvoiTexte {
+		void envoyer(String s) throws IOException;
+	}
+
+	/**
+	 * Lit la liste de la ligne courante avec LecteurListes en envoyant la
+	 * liste originale au serveur morceau par morceau.
+	 *
+	 * @param lecteur est le lecteur du fichier d'entrée.
+	 * @param ldc     est la liste dans laquelle on ajoute les éléments.
+	 * @param envoi   envoie chaque morceau de la liste originale au serveur.
+	 * @throws IOException si le fichier ne peut pas être lu ou si on ne peut
+	 *                     pas écrire au serveur.
+	 */
+	private static void lireListe(LecteurListes lecteur,
+			ListeDoublementChainee ldc, EnvoiTexte envoi) throws IOException {
+		try {
+			lecteur.lireListe(ldc::ajouterNoeud, morceau -> {
+				try {
+					envoi.envoyer(morceau);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Trie les listes du fichier et les envoie au serveur avec le transport
+	 * par trames de CanalTrames, dans le même ordre et le même format que
+	 * le transport par ObjectOutputStream.
+	 *
+	 * @param maxLignesLot est le nombre de lignes par lot, 0 pour ne pas
+	 *                     utiliser de lots.
+	 * @param maxOctetsLot est la taille maximale d'un lot en octets.
+	 * @param compression  est vrai si les lots sont compressés.
+	 * @throws IOException si on ne peut pas écrire au serveur.
+	 */
+	private static void envoyerNio(int maxLignesLot, int maxOctetsLot,
+			boolean compression) throws IOException {
+		try (
+				CanalTrames trames = new CanalTrames(SocketChannel
+						.open(new InetSocketAddress("127.0.0.1", Port.NUMBER)));
+				LecteurListes lecteur =
+						new LecteurListes(Path.of("./assets/input.txt"))) {
+			System.out.println(String.format(
+					"Demarrage du client NIO sur port %d.", Port.NUMBER));
+
+			if (maxLignesLot > 0)
+				trames.activerLots(maxLignesLot, maxOctetsLot, compression);
+
+			while (lecteur.prochaineLigne()) {
+				String sens = lecteur.lireSens();
+				trames.envoyerTexte("----------\n" + "Sens du tri: " + sens
+						+ "\n" + "Liste originale: ");
+
+				// On crée et on trie la liste doublement chainée au fur et à
+				// mesure que ses éléments sont lus, et on envoie la liste
+				// originale morceau par morceau.
+				ListeDoublementChainee ldc = new ListeDoublementChainee(sens);
+				lireListe(lecteur, ldc, trames::envoyerTexte);
+				trames.envoyerTexte("\n");
+
+				trames.envoyerListe(ldc);
+				trames.envoyerTexte("----------\n");
+				trames.ligneTerminee();
+			}
+		}
+	}
+
 	public static void main(String[] args) {
+		boolean triServeur = false;
+		boolean nio = false;
+		int maxLignesLot = 0;
+		int maxOctetsLot = 1 << 20;
+		boolean compression = false;
+
+		Iterator<String> argsIterator = Arrays.stream(args).iterator();
+		while (argsIterator.hasNext()) {
+			var next = argsIterator.next();
+			switch (next) {
+				case "--tri-serveur" -> triServeur = true;
+				case "--nio" -> nio = true;
+				case "--lot" -> maxLignesLot =
+						Integer.parseInt(argsIterator.next());
+				case "--lot-octets" -> maxOctetsLot =
+						Integer.parseInt(argsIterator.next());
+				case "--compression" -> compression = true;
+				default -> {
+					System.out.println(
+							"erreur: option inconnue \"" + next + "\"");
+					return;
+				}
+			}
+		}
+
+		if (nio && triServeur) {
+			System.out.println("erreur: --nio et --tri-serveur ne peuvent "
+					+ "pas être utilisés ensemble");
+			return;
+		}
+
+		// Les lots ne sont possibles qu'avec le transport par trames
+		if (!nio && (maxLignesLot > 0 || compression)) {
+			System.out.println("erreur: --lot et --compression demandent "
+					+ "l'option --nio");
+			return;
+		}
+		if (compression && maxLignesLot == 0) {
+			System.out.println("erreur: --compression demande l'option --lot");
+			return;
+		}
+
+		if (nio) {
+			try {
+				envoyerNio(maxLignesLot, maxOctetsLot, compression);
+			} catch (FileNotFoundException e) {
+				System.out.println("Le fichier n'a pas été trouvé.");
+				e.printStackTrace();
+			} catch (ConnectException x) {
+				System.out.println("Connexion impossible sur port "
+						+ Port.NUMBER + ": pas de serveur.");
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return;
+		}
+
 		// On utilise le try with resource pour s'assurer que Java ferme le
 		// socket peu importe les erreurs captées dans le programme.
 		try (
@@ -55,45 +218,97 @@ public class LeClient {
 			ObjectOutputStream writer =
 					new ObjectOutputStream(monSocket.getOutputStream());
 
+			// En mode tri serveur, on lit les réponses en même temps qu'on
+			// envoie les requêtes.
+			Thread lecteur = null;
+			if (triServeur) {
+				lecteur = new Thread(() -> lireReponses(monSocket));
+				lecteur.start();
+			}
+
 			try {
 				File myFile = new File("./assets/input.txt");
 
-				// On utilise le try with resource pour que Java ferme le
-				// scanner peu importe les erreurs produites
-				try (
-						Scanner myReader = new Scanner(myFile)) {
-					while (myReader.hasNextLine()) {
-						String line = myReader.nextLine();
-						if (!line.isEmpty()) {
+				// En mode tri serveur, c'est le serveur qui lit la liste, donc
+				// on lui envoie les lignes au complet.
+				if (triServeur) {
+					// On utilise le try with resource pour que Java ferme le
+					// scanner peu importe les erreurs produites
+					try (
+							Scanner myReader = new Scanner(myFile)) {
+						while (myReader.hasNextLine()) {
+							String line = myReader.nextLine();
+							if (!line.isEmpty()) {
+								// Le serveur s'occupe de tout le reste
+								String[] colonne = line.split(" ");
+								writer.writeObject(
+										new Requete(colonne[0], colonne[1]));
+								// On oublie la requête envoyée: le writer
+								// et le lecteur du serveur n'en gardent
+								// ainsi aucune référence, peu importe la
+								// taille du fichier.
+								writer.reset();
+							}
+						}
+					}
+				}
+				// Sinon, on lit le fichier avec LecteurListes pour ne jamais
+				// garder une ligne au complet en mémoire.
+				else if (!myFile.exists())
+					throw new FileNotFoundException(myFile.getPath());
+				else
+					try (
+							LecteurListes lecteurListes =
+									new LecteurListes(myFile.toPath())) {
+						while (lecteurListes.prochaineLigne()) {
 							// String décrivant les conditions initiales et
 							// faisant un peu de mise en page
+							String sens = lecteurListes.lireSens();
 							String toPass = "----------\n";
-							String[] colonne = line.split(" ");
-							String sens = colonne[0];
-							String listeEnString = colonne[1];
 							toPass += "Sens du tri: " + sens + "\n";
-							toPass +=
-									"Liste originale: " + listeEnString + "\n";
-
+							toPass += "Liste originale: ";
 							writer.writeObject(toPass);
 
 							// On crée et on trie la liste doublement chainée
+							// en envoyant la liste originale morceau par
+							// morceau. Les morceaux sont envoyés avec
+							// writeUnshared pour que le writer n'en garde
+							// pas de référence.
 							ListeDoublementChainee ldc =
 									new ListeDoublementChainee(sens);
-							ldc.ajouterListe(listeEnString);
+							lireListe(lecteurListes, ldc,
+									writer::writeUnshared);
+							writer.writeObject("\n");
 
 							writer.writeObject(ldc);
 
 							// On refait un peu de mise en page
 							toPass = "----------\n";
 							writer.writeObject(toPass);
+
+							// On oublie les objets déjà envoyés pour que la
+							// mémoire du writer ne grossisse pas avec le
+							// nombre de lignes.
+							writer.reset();
 						}
 					}
-				}
 			} catch (FileNotFoundException e) {
 				System.out.println("Le fichier n'a pas été trouvé.");
 				e.printStackTrace();
 			}
+			// En mode tri serveur, on indique au serveur qu'on a fini
+			// d'envoyer sans fermer le socket, puis on attend les dernières
+			// réponses.
+			if (lecteur != null) {
+				writer.flush();
+				monSocket.shutdownOutput();
+				try {
+					lecteur.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
 			// Le compilateur nous laisse fermer le writer sans passer par un
 			// try with resource, donc cette formulation semble correcte.
 			writer.close();
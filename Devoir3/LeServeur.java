@@ -1,86 +1,178 @@
 import java.io.*;
 import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Cette classe est un serveur qui attend les commande de la classe LeCLient
  * pour s'exécuter. Le serveur va imprimer dans un fichier output.txt les
  * listes doublement chainées ordonnées à partir des données envoyées par le
- * client.
+ * client. Plusieurs clients peuvent être servis en même temps, chacun sur son
+ * propre fil d'exécution.
+ *
+ * Un client peut aussi envoyer des Requete, qui contiennent une ligne brute du
+ * fichier d'entrée. Dans ce cas, c'est le serveur qui construit et trie la
+ * liste sur un groupe de fils d'exécution, puis qui renvoie au client
+ * l'enregistrement écrit dans output.txt.
+ *
+ * Avec l'option --nio, le serveur utilise plutôt des SocketChannel et le
+ * transport par trames de CanalTrames. Une trame plus grande que --max-trame
+ * octets (64 Mo par défaut) ou mal formée déconnecte le client.
  *
  * @author Adrien Charron
  * @author Michalis Famelis
  */
 public class LeServeur {
+	// String envoyée par LeClient à la fin de chaque ligne traitée. Elle nous
+	// sert à savoir quand un enregistrement complet peut être écrit.
+	private static final String FIN_ENREGISTREMENT = "----------\n";
+	// Sortie partagée par tous les clients, ouverte une seule fois dans main
+	private static Sortie sortie;
+	// Taille maximale du contenu d'une trame reçue en NIO
+	private static int maxTrame = CanalTrames.MAX_TRAME_DEFAUT;
+
+	// Nombre maximal de tris en attente dans la file commune à tous les
+	// clients. Quand elle est pleine, c'est le fil du client qui fait le tri
+	// lui-même, ce qui l'empêche de lire d'autres requêtes en attendant.
+	private static final int TAILLE_FILE_TRI = 256;
+	// Nombre maximal de réponses qu'un client peut avoir en attente avant
+	// qu'on attende la plus vieille pour la lui envoyer.
+	private static final int MAX_EN_ATTENTE_PAR_CLIENT = 64;
+	// Groupe de fils d'exécution qui trient les listes envoyées en Requete
+	private static final ExecutorService trieurs = new ThreadPoolExecutor(
+			Runtime.getRuntime().availableProcessors(),
+			Runtime.getRuntime().availableProcessors(), 0L,
+			TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<Runnable>(TAILLE_FILE_TRI),
+			FilTrieur::new, new ThreadPoolExecutor.CallerRunsPolicy());
+
 	/**
-	 * Cette méthode sert à écrire dans un fichier output.txt les listes
-	 * doublement chainées envoyées par la classe LeClient selon les
-	 * spécifications du devoir2.
-	 * 
-	 * @param d est la liste doublement chainée recueillie du stream.
-	 * @throws IOException est l'exception nécessaire au FileWriter.
+	 * Un fil d'exécution des trieurs. Il garde sa propre ListeArene, qu'il
+	 * vide et réutilise pour chaque requête au lieu de créer une nouvelle
+	 * liste doublement chainée. Seuls ces fils gardent une arène: il y en a
+	 * donc au plus une par coeur, et les fils des clients, qui attendent
+	 * souvent, n'en gardent pas.
 	 */
-	private static void faireDesChoses(IListeDoublementChainee d)
-			throws IOException {
-
-		// On crée un FileWriter pour écrire les données à la fin de notre
-		// fichier
-		// output.txt.
-		FileWriter fw = new FileWriter("output.txt", true);
+	private static final class FilTrieur extends Thread {
+		private final ListeArene arene = new ListeArene("asc");
 
-		// On écrit les données dans notre fichier grâce à un BufferedWriter.
-		try (
-				BufferedWriter writer = new BufferedWriter(fw)) {
-			// On utilise les méthodes de la classe ListeDoublementChainee
-			// pour imprimer les liste du début à la fin et inversement.
-			writer.write(d.imprimerListeDuDebut());
-			writer.write(d.imprimerListeDeLaFin());
-
-			// On vide le BufferedWriter.
-			writer.flush();
+		FilTrieur(Runnable tache) {
+			super(tache, "trieur");
 		}
 	}
 
 	/**
-	 * Cette méthode overload la précédente méthode du même nom pour écrire des
-	 * String dans notre fichier output.txt à partir des données envoyées par
-	 * LeClient.
-	 * 
-	 * @param s est le String recueilli du stream.
-	 * @throws IOException est l'exception nécessaire au FileWriter.
+	 * Cette méthode sert à écrire dans notre fichier output.txt un
+	 * enregistrement complet construit à partir des données envoyées par
+	 * LeClient. La sortie garde le fichier ouvert et écrit chaque
+	 * enregistrement d'un seul coup, donc les enregistrements de deux clients
+	 * ne sont jamais entremêlés dans le fichier.
+	 *
+	 * @param s est le String à écrire dans le fichier.
+	 * @throws IOException si la sortie ne peut pas être écrite.
 	 */
 	private static void faireDesChoses(String s) throws IOException {
+		sortie.ecrire(s);
+	}
 
-		// On crée un FileWriter pour écrire les données à la fin de notre
-		// fichier output.txt.
-		FileWriter fw = new FileWriter("output.txt", true);
+	/**
+	 * Cette méthode construit et trie la liste d'une requête, puis retourne
+	 * l'enregistrement complet dans le même format que celui produit à partir
+	 * des données envoyées par LeClient.
+	 *
+	 * @param requete est la ligne brute envoyée par le client.
+	 * @return l'enregistrement à écrire dans output.txt.
+	 */
+	private static String trierRequete(Requete requete) {
+		// Un trieur vide son arène et y trie la liste. Quand la file des
+		// tris est pleine, c'est le fil du client qui trie, dans une liste
+		// qui ne sert qu'une fois.
+		IListeDoublementChainee ldc;
+		if (Thread.currentThread() instanceof FilTrieur trieur) {
+			trieur.arene.vider(requete.getSens());
+			ldc = trieur.arene;
+		} else
+			ldc = new ListeDoublementChainee(requete.getSens());
+		ldc.ajouterListe(requete.getListeEnString());
 
-		// On écrit les données dans notre fichier grâce à un BufferedWriter.
-		try (
-				BufferedWriter writer = new BufferedWriter(fw)) {
-			writer.write(s);
-			// On vide le BufferedWriter.
-			writer.flush();
-		}
+		return FIN_ENREGISTREMENT + "Sens du tri: " + requete.getSens() + "\n"
+				+ "Liste originale: " + requete.getListeEnString() + "\n"
+				+ ldc.imprimerListeDuDebut() + ldc.imprimerListeDeLaFin()
+				+ FIN_ENREGISTREMENT;
 	}
 
-	public static void main(String[] args) {
-		try (
-				ServerSocket server = new ServerSocket(Port.NUMBER, 1)) {
-			System.out.println(String
-					.format("Demarrage du serveur sur port %d.", Port.NUMBER));
+	/**
+	 * Cette méthode attend la fin du tri d'une requête, écrit le résultat
+	 * dans output.txt et le renvoie au client.
+	 *
+	 * @param tri       est le tri en cours pour la requête.
+	 * @param reponses  est le stream vers le client.
+	 * @throws IOException si le tri a échoué ou si on ne peut pas écrire.
+	 */
+	private static void repondre(Future<String> tri,
+			ObjectOutputStream reponses) throws IOException {
+		String enregistrement;
+		try {
+			enregistrement = tri.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrompu en attendant le tri d'une liste");
+		} catch (ExecutionException e) {
+			throw new IOException("Le tri d'une liste a échoué", e.getCause());
+		}
 
-			Socket client = server.accept();
-			System.out.println(
-					"Un client ayant l'addresse " + client.getInetAddress()
-							+ " a connecté sur port " + client.getLocalPort());
+		faireDesChoses(enregistrement);
 
-			InputStream clientStream = client.getInputStream();
+		// On utilise writeUnshared pour que l'ObjectOutputStream ne garde pas
+		// une référence vers chaque réponse envoyée.
+		reponses.writeUnshared(enregistrement);
+		reponses.flush();
+	}
 
-			// On crée un ObjectInputStream à partir du stream envoyé par le
-			// client.
-			ObjectInputStream objectReader =
-					new ObjectInputStream(clientStream);
+	/**
+	 * Cette méthode lit tous les objets envoyés par un client jusqu'à la fin
+	 * de son stream. Les données d'une même ligne sont accumulées et écrites
+	 * d'un seul coup quand le client envoie FIN_ENREGISTREMENT, ce qui garde
+	 * l'ordre des lignes d'un client et les empêche d'être coupées par celles
+	 * d'un autre client.
+	 *
+	 * @param client est le socket du client à servir.
+	 */
+	private static void servirClient(Socket client) {
+		System.out.println("Un client ayant l'addresse "
+				+ client.getInetAddress() + " a connecté sur port "
+				+ client.getLocalPort());
+
+		// On crée un ObjectInputStream à partir du stream envoyé par le
+		// client.
+		try (
+				client;
+				ObjectInputStream objectReader =
+						new ObjectInputStream(client.getInputStream())) {
+
+			// Enregistrement en cours de construction pour ce client
+			StringBuilder enregistrement = new StringBuilder();
+			// Tris des requêtes de ce client, dans l'ordre où elles sont
+			// arrivées
+			Queue<Future<String>> enAttente = new ArrayDeque<>();
+			// Stream vers le client, créé seulement s'il envoie des requêtes
+			ObjectOutputStream reponses = null;
 
 			try {
 				while (true) {
@@ -89,20 +181,45 @@ public class LeServeur {
 						// Le stream est désérialisé ici.
 						Object obj = objectReader.readObject();
 
+						// Si les données envoyées sont une requête, on donne
+						// le tri aux trieurs et on répond dans l'ordre
+						// d'arrivée des requêtes.
+						if (obj instanceof Requete) {
+							Requete requete = (Requete) obj;
+							if (reponses == null)
+								reponses = new ObjectOutputStream(
+										client.getOutputStream());
+
+							enAttente.add(trieurs
+									.submit(() -> trierRequete(requete)));
+							if (enAttente.size() >= MAX_EN_ATTENTE_PAR_CLIENT)
+								repondre(enAttente.poll(), reponses);
+						}
 						// Si les données envoyées sont de type String, on
 						// transtype l'object pris du stream en string et on
-						// appelle la méthode faireDesChoses correspondante.
-						if (obj instanceof String) {
+						// l'ajoute à l'enregistrement.
+						else if (obj instanceof String) {
 							String unString = (String) obj;
-							faireDesChoses(unString);
+							enregistrement.append(unString);
+
+							// Si c'est la fin de la ligne, on écrit tout
+							// l'enregistrement dans le fichier.
+							if (unString.equals(FIN_ENREGISTREMENT)) {
+								faireDesChoses(enregistrement.toString());
+								enregistrement.setLength(0);
+							}
 						}
 						// Sinon, l'object est une liste doublement chainée et
-						// on le cast ainsi, puis on appelle la méthode
-						// faireDesChoses correspondante.
+						// on le cast ainsi, puis on utilise les méthodes de la
+						// classe ListeDoublementChainee pour imprimer les
+						// liste du début à la fin et inversement.
 						else {
 							IListeDoublementChainee uneListe =
 									(IListeDoublementChainee) obj;
-							faireDesChoses(uneListe);
+							enregistrement
+									.append(uneListe.imprimerListeDuDebut());
+							enregistrement
+									.append(uneListe.imprimerListeDeLaFin());
 						}
 
 					} catch (ClassNotFoundException e) {
@@ -125,9 +242,184 @@ public class LeServeur {
 				System.out.println("Plus des choses à lire. Au revoir.");
 			}
 
-			objectReader.close();
+			// On écrit ce qui reste si le client s'est arrêté au milieu
+			// d'une ligne.
+			if (enregistrement.length() > 0)
+				faireDesChoses(enregistrement.toString());
+
+			// On envoie les réponses aux requêtes qui restent
+			while (!enAttente.isEmpty())
+				repondre(enAttente.poll(), reponses);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Cette méthode fait la même chose que servirClient, mais pour un client
+	 * qui utilise le transport par trames de CanalTrames.
+	 *
+	 * @param client est le canal du client à servir.
+	 */
+	private static void servirClientNio(SocketChannel client) {
+		try (
+				CanalTrames trames = new CanalTrames(client)) {
+			System.out.println("Un client ayant l'addresse "
+					+ client.getRemoteAddress() + " a connecté en NIO");
+			trames.setMaxTrame(maxTrame);
+
+			// Enregistrement en cours de construction pour ce client
+			StringBuilder enregistrement = new StringBuilder();
+
+			try {
+				while (true) {
+					switch (trames.recevoir()) {
+						case CanalTrames.TEXTE -> {
+							String unString = trames.getTexte();
+							enregistrement.append(unString);
+
+							// Si c'est la fin de la ligne, on écrit tout
+							// l'enregistrement dans le fichier.
+							if (unString.equals(FIN_ENREGISTREMENT)) {
+								faireDesChoses(enregistrement.toString());
+								enregistrement.setLength(0);
+							}
+						}
+						case CanalTrames.LISTE -> {
+							IListeDoublementChainee uneListe =
+									ListeDoublementChainee
+											.lireDe(trames.getContenu());
+							enregistrement
+									.append(uneListe.imprimerListeDuDebut());
+							enregistrement
+									.append(uneListe.imprimerListeDeLaFin());
+						}
+						default -> System.err.println(
+								"La trame lue n'etait pas d'un type attendu.");
+					}
+				}
+			} catch (EOFException eof) {
+				System.out.println("Plus des choses à lire. Au revoir.");
+			} catch (StreamCorruptedException | BufferUnderflowException
+					| IllegalArgumentException e) {
+				// Une trame ou une liste mal formée: on ferme la connexion sans
+				// écrire l'enregistrement commencé, qui ne veut rien dire.
+				System.err.println("Trame invalide, on déconnecte le client: "
+						+ e);
+				enregistrement.setLength(0);
+			}
+
+			// On écrit ce qui reste si le client s'est arrêté au milieu
+			// d'une ligne.
+			if (enregistrement.length() > 0)
+				faireDesChoses(enregistrement.toString());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	public static void main(String[] args) {
+		// Paramètres de la sortie, qui peuvent être changés par les options
+		int tailleTampon = 1 << 20;
+		long delaiMaxMs = 100;
+		Sortie.PolitiqueSync politique = Sortie.PolitiqueSync.A_LA_FERMETURE;
+		boolean nio = false;
+
+		Iterator<String> argsIterator = Arrays.stream(args).iterator();
+		while (argsIterator.hasNext()) {
+			var next = argsIterator.next();
+			switch (next) {
+				case "--taille-tampon" -> tailleTampon =
+						Integer.parseInt(argsIterator.next());
+				case "--delai-vidage" -> delaiMaxMs =
+						Long.parseLong(argsIterator.next());
+				case "--nio" -> nio = true;
+				case "--max-trame" -> maxTrame =
+						Integer.parseInt(argsIterator.next());
+				case "--fsync" -> {
+					switch (argsIterator.next()) {
+						case "jamais" -> politique =
+								Sortie.PolitiqueSync.JAMAIS;
+						case "vidage" -> politique =
+								Sortie.PolitiqueSync.A_CHAQUE_VIDAGE;
+						case "fermeture" -> politique =
+								Sortie.PolitiqueSync.A_LA_FERMETURE;
+						default -> {
+							System.out.println("erreur: politique de fsync "
+									+ "inconnue, choix: jamais, vidage, "
+									+ "fermeture");
+							return;
+						}
+					}
+				}
+				default -> {
+					System.out.println(
+							"erreur: option inconnue \"" + next + "\"");
+					return;
+				}
+			}
+		}
+
+		if (maxTrame < 0) {
+			System.out.println("erreur: --max-trame doit être positif");
+			return;
+		}
+
+		try {
+			sortie = new Sortie(Path.of("output.txt"), tailleTampon,
+					delaiMaxMs, politique);
+		} catch (IOException e) {
+			System.out.println("erreur: je ne peux pas ouvrir output.txt");
+			e.printStackTrace();
+			return;
+		}
+
+		// Le serveur ne s'arrête que quand on le tue, donc c'est ici qu'on
+		// s'assure que le contenu du tampon se rend dans le fichier.
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				sortie.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}));
+
+		// Chaque client est servi sur son propre fil d'exécution, ce qui
+		// permet d'en accepter autant qu'on veut en même temps.
+		ExecutorService executeur = Executors.newCachedThreadPool();
+
+		if (nio) {
+			try (
+					ServerSocketChannel server = ServerSocketChannel.open()) {
+				server.bind(new InetSocketAddress(Port.NUMBER));
+				System.out.println(String.format(
+						"Demarrage du serveur NIO sur port %d.", Port.NUMBER));
+
+				while (true) {
+					SocketChannel client = server.accept();
+					executeur.execute(() -> servirClientNio(client));
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			} finally {
+				executeur.shutdown();
+			}
+			return;
+		}
+
+		try (
+				ServerSocket server = new ServerSocket(Port.NUMBER)) {
+			System.out.println(String
+					.format("Demarrage du serveur sur port %d.", Port.NUMBER));
+
+			while (true) {
+				Socket client = server.accept();
+				executeur.execute(() -> servirClient(client));
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
+		} finally {
+			executeur.shutdown();
 		}
 	}
 }
@@ -1,4 +1,15 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 
 /**
  * This class is a doubly linked list structure that can support three
@@ -18,13 +29,16 @@ public class ListeDoublementChainee
      *
      * @author Nicolas Levasseur
      */
-    private class Noeud implements Serializable {
+    private static class Noeud implements Serializable {
         // Reference to the last node in the list
         public Noeud precedent;
         // Item contained in the current node
         public Item<?> item;
         // Reference to the the next node in the list
         public Noeud suivant;
+        // Number of copies of the item held by the node, more than 1 only in
+        // counted mode
+        public int nombre;
         // Used for the serializable interface, set to an arbitrary value
         static final long serialVersionUID = 1L;
 
@@ -39,18 +53,38 @@ public class ListeDoublementChainee
             this.precedent = precedent;
             this.item = item;
             this.suivant = suivant;
+            this.nombre = 1;
         }
     }
 
 
     // The order in which the list will be sorted (ascending or descending).
     private final String sens;
-    // The first node in the chain.
-    private Noeud premier;
+    // true in counted mode, where equal values share a node, see
+    // ajouterAuGroupe.
+    private final boolean compte;
+    // The first node in the chain. The chain is transient because we write
+    // it ourselves as a flat array in writeObject.
+    private transient Noeud premier;
     // The last node in the chain.
-    private Noeud dernier;
-    // Used for the serializable interface, set to an arbitrary value
-    static final long serialVersionUID = 1L;
+    private transient Noeud dernier;
+    // The number of nodes in the chain.
+    private transient int taille;
+    // The finger: the last node added, from which the next one is placed.
+    private transient Noeud doigt;
+    // Kinds of items in the chain, see noterType.
+    private transient boolean contientTexte;
+    private transient boolean contientNombre;
+    private transient boolean contientNaN;
+    // Used for the serializable interface, changed when the serialized form
+    // changes
+    static final long serialVersionUID = 3L;
+
+    // Tags written before each value in the serialized form of the list
+    private static final byte TAG_INTEGER = 0;
+    private static final byte TAG_DOUBLE = 1;
+    private static final byte TAG_STRING = 2;
+    private static final byte TAG_OBJET = 3;
 
 
     /**
@@ -60,7 +94,22 @@ public class ListeDoublementChainee
      * @param sens is specfied in the input and extracted in the Main class.
      */
     public ListeDoublementChainee(String sens) {
+        this(sens, false);
+    }
+
+    /**
+     * Constructor for the doubly linked list, in counted mode or not. In
+     * counted mode, copies of a value that are next to each other in the
+     * chain share one node, so the memory used and the time taken to add an
+     * item depend on the number of different values. The list is printed and
+     * iterated the same way in both modes.
+     * 
+     * @param sens   is the order of the list ("asc" or "desc").
+     * @param compte is true for the counted mode.
+     */
+    public ListeDoublementChainee(String sens, boolean compte) {
         this.sens = sens;
+        this.compte = compte;
 
         // Premier and dernier are initialized to null, since the chain is
         // empty at the beginning.
@@ -84,33 +133,33 @@ public class ListeDoublementChainee
         // listeInitiale is the String list cleaned up.
         String[] listeInitiale = listeEnString.split(",");
 
-        // We initialize a temp variable of type Item<?>
-        Item<?> temp;
-
         // We loop through the String list to transform the elements into
-        // items.
-        for (int i = 0; i < listeInitiale.length; i++) {
-
-            // We initialize a String variable "item" for the current element.
-            String item = listeInitiale[i];
-
-            // We look if the element is an integer and create an item
-            // consequently.
-            if (LeClient.isInteger(item))
-                temp = new Item<>(Integer.parseInt(item));
+        // items, and a node is created with each new item.
+        for (int i = 0; i < listeInitiale.length; i++)
+            ajouterNoeud(creerItem(listeInitiale[i]));
+    }
 
-            // We look if the element is a double and create an item
-            // consequently.
-            else if (LeClient.isDouble(item))
-                temp = new Item<>(Double.parseDouble(item));
+    /**
+     * This method transforms one element of a list in the input into an item
+     * of the right type (Integer, Double or String).
+     * 
+     * @param item One element of the list, without the brackets or commas.
+     * @return The item created from the element.
+     */
+    public static Item<?> creerItem(String item) {
+        // We look if the element is an integer and create an item
+        // consequently.
+        if (LeClient.isInteger(item))
+            return new Item<>(Integer.parseInt(item));
 
-            // Else, the element is a String and we create an item consequently
-            else
-                temp = new Item<>(item);
+        // We look if the element is a double and create an item
+        // consequently.
+        else if (LeClient.isDouble(item))
+            return new Item<>(Double.parseDouble(item));
 
-            // A node is created with the new item.
-            ajouterNoeud(temp);
-        }
+        // Else, the element is a String and we create an item consequently
+        else
+            return new Item<>(item);
     }
 
     /**
@@ -126,13 +175,26 @@ public class ListeDoublementChainee
         // descending.
         float sensDeTri = sens.equals("asc") ? -1 : 1;
 
+        // The item is always added somewhere in the chain
+        taille++;
+        noterType(item);
+
         // We initialize the variable current to the first node in the chain.
         Noeud current = premier;
 
         // If the chain is empty, meaning this new node is the first one
         // created, we assign the node to the first and last node.
         if (premier == null) {
-            premier = dernier = new Noeud(null, item, null);
+            premier = dernier = doigt = new Noeud(null, item, null);
+            return;
+        }
+
+        // If the items can be compared consistently, the chain is really
+        // sorted and we can look for the place of the new node from the
+        // finger. Otherwise, we keep the first node (from the beginning) that
+        // should come after the new one, like we always did.
+        if (ordreTransitif()) {
+            insererDepuisDoigt(item, sensDeTri);
             return;
         }
 
@@ -147,6 +209,9 @@ public class ListeDoublementChainee
                 // We intialize the node that will be placed before our new
                 // node
                 Noeud before = current.precedent;
+                // In counted mode, it may already hold copies of the item
+                if (ajouterAuGroupe(before, item))
+                    return;
                 // The new node is placed before the "current" node
                 current.precedent = new Noeud(before, item, current);
                 // If the previous node wasn't the first (therefore null), the
@@ -164,6 +229,8 @@ public class ListeDoublementChainee
         }
         // If we reached the end of the chain, the new node is placed at the
         // end.
+        if (ajouterAuGroupe(dernier, item))
+            return;
         Noeud temp = dernier;
         dernier = new Noeud(temp, item, null);
 
@@ -181,14 +248,19 @@ public class ListeDoublementChainee
         // We initialize a variable to the first node.
         Noeud node = this.premier;
 
+        // An empty list (ex: after removing its items) only has its title
+        if (node == null)
+            return "Noeuds du debut vers la fin: \n";
+
         String impression =
                 "Noeuds du debut vers la fin: " + node.item.getValeur();
+        // In counted mode, we also add the other copies of the item
+        impression += ("->" + node.item.getValeur()).repeat(node.nombre - 1);
 
         // We loop through the list to add each node in order.
         while (node.suivant != null) {
             node = node.suivant;
-            impression += "->";
-            impression += node.item.getValeur();
+            impression += ("->" + node.item.getValeur()).repeat(node.nombre);
         }
         impression += "\n";
 
@@ -205,17 +277,607 @@ public class ListeDoublementChainee
         // We initialize a variable to the last node.
         Noeud node = this.dernier;
 
+        // An empty list only has its title
+        if (node == null)
+            return "Noeuds de la fin vers le debut: \n";
+
         String impression =
                 "Noeuds de la fin vers le debut: " + node.item.getValeur();
+        // In counted mode, we also add the other copies of the item
+        impression += ("->" + node.item.getValeur()).repeat(node.nombre - 1);
 
         // We loop through the list to add each node in order.
         while (node.precedent != null) {
             node = node.precedent;
-            impression += "->";
-            impression += node.item.getValeur();
+            impression += ("->" + node.item.getValeur()).repeat(node.nombre);
         }
         impression += "\n";
 
         return impression;
     }
+
+    /**
+     * This class is a cursor that goes through the nodes of the list without
+     * copying them, from the beginning to the end or the opposite. The last
+     * item given by next() can be removed from the list with remove(). The
+     * list must not be changed other than with this cursor while it is used.
+     *
+     * @author Nicolas Levasseur
+     */
+    private class Curseur implements Iterator<Item<?>> {
+        // Next node given by the cursor, null at the end
+        private Noeud prochain;
+        // Number of copies of the item of prochain already given
+        private int dejaDonnes;
+        // Last node given by next(), the one removed by remove()
+        private Noeud donne;
+        // true if the cursor goes from the end to the beginning
+        private final boolean aRebours;
+        // The cursor stops before the first item that comes after this one in
+        // the list, null to go until the end.
+        private final Item<?> borne;
+
+        Curseur(Noeud depart, boolean aRebours, Item<?> borne) {
+            this.prochain = depart;
+            this.aRebours = aRebours;
+            this.borne = borne;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return prochain != null
+                    && (borne == null || ordre(prochain.item, borne) <= 0);
+        }
+
+        @Override
+        public Item<?> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            // We go to the next node after giving every copy of the item
+            donne = prochain;
+            if (++dejaDonnes == prochain.nombre) {
+                prochain = aRebours ? prochain.precedent : prochain.suivant;
+                dejaDonnes = 0;
+            }
+            return donne.item;
+        }
+
+        @Override
+        public void remove() {
+            if (donne == null)
+                throw new IllegalStateException();
+            // If the cursor is still on the node, one less copy was given
+            if (donne == prochain)
+                dejaDonnes--;
+            retirerNoeud(donne);
+            donne = null;
+        }
+    }
+
+    /**
+     * Compares two items in the order of the list.
+     *
+     * @return A negative number if a comes before b in the list, 0 if they
+     *         are equal and a positive number if a comes after b.
+     */
+    private int ordre(Item<?> a, Item<?> b) {
+        int comparaison = (int) Math.signum(a.compareTo(b));
+        return sens.equals("asc") ? comparaison : -comparaison;
+    }
+
+    // Adds an item at the end of the chain, without looking at its order
+    private void ajouterALaFin(Item<?> item) {
+        taille++;
+        noterType(item);
+        if (ajouterAuGroupe(dernier, item))
+            return;
+
+        Noeud node = new Noeud(dernier, item, null);
+        if (dernier == null)
+            premier = node;
+        else
+            dernier.suivant = node;
+        dernier = doigt = node;
+    }
+
+    /**
+     * Places a new node in a sorted chain by starting from the finger instead
+     * of the beginning, which is much faster when the items arrive almost
+     * sorted. Adding before the first node or after the last one is done
+     * right away. The new node comes after every node that is not after it
+     * in the order, so equal items stay in the order they were added.
+     *
+     * @param item      The item to add, the chain is not empty.
+     * @param sensDeTri -1 if ascending and 1 if descending, see ajouterNoeud.
+     */
+    private void insererDepuisDoigt(Item<?> item, float sensDeTri) {
+        // apres is the node that will come right after the new one, null if
+        // the new node goes at the end.
+        Noeud apres;
+        if (Math.signum(item.compareTo(dernier.item)) != sensDeTri)
+            apres = null;
+        else if (Math.signum(item.compareTo(premier.item)) == sensDeTri)
+            apres = premier;
+        else {
+            // The new node goes between two nodes: we walk from the finger to
+            // the node that will come right after it. The walk always stops
+            // before the ends, because of the two cases above.
+            apres = doigt == null ? premier : doigt;
+            if (Math.signum(item.compareTo(apres.item)) == sensDeTri) {
+                while (Math.signum(item.compareTo(apres.precedent.item))
+                        == sensDeTri)
+                    apres = apres.precedent;
+            } else {
+                do
+                    apres = apres.suivant;
+                while (Math.signum(item.compareTo(apres.item)) != sensDeTri);
+            }
+        }
+
+        Noeud avant = apres == null ? dernier : apres.precedent;
+        if (ajouterAuGroupe(avant, item))
+            return;
+
+        Noeud node = new Noeud(avant, item, apres);
+        if (avant == null)
+            premier = node;
+        else
+            avant.suivant = node;
+        if (apres == null)
+            dernier = node;
+        else
+            apres.precedent = node;
+        doigt = node;
+    }
+
+    /**
+     * In counted mode, adds a copy to the node that would be right before the
+     * new item, instead of creating a node for it, if they hold the same
+     * value. Items that are only equal for compareTo (ex: 1 and 1.0) keep
+     * their own node, so the printed list does not change.
+     *
+     * @param node The node that would be right before the item, or null.
+     * @param item The item to add.
+     * @return true if the item was added to the node.
+     */
+    private boolean ajouterAuGroupe(Noeud node, Item<?> item) {
+        if (!compte || node == null
+                || !node.item.getValeur().equals(item.getValeur()))
+            return false;
+
+        node.nombre++;
+        doigt = node;
+        return true;
+    }
+
+    /**
+     * Remembers the kind of an item added to the chain. Strings and numbers
+     * are compared differently by Item (as text or as numbers), so a chain
+     * that mixes them, or that contains NaN (equal to every number), is not
+     * always sorted in a transitive way.
+     *
+     * @param item The item added to the chain.
+     */
+    private void noterType(Item<?> item) {
+        Object valeur = item.getValeur();
+        if (valeur instanceof String)
+            contientTexte = true;
+        else {
+            contientNombre = true;
+            if (valeur instanceof Double && ((Double) valeur).isNaN())
+                contientNaN = true;
+        }
+    }
+
+    // true if the items of the chain can all be compared consistently
+    private boolean ordreTransitif() {
+        return !contientNaN && !(contientTexte && contientNombre);
+    }
+
+    // Removes one copy of the item of a node, and the node from the chain
+    // (by linking its neighbours together) if it was the last copy
+    private void retirerNoeud(Noeud node) {
+        if (node.nombre > 1) {
+            node.nombre--;
+            taille--;
+            return;
+        }
+
+        if (node == doigt)
+            doigt = node.precedent != null ? node.precedent : node.suivant;
+
+        if (node.precedent != null)
+            node.precedent.suivant = node.suivant;
+        else
+            premier = node.suivant;
+
+        if (node.suivant != null)
+            node.suivant.precedent = node.precedent;
+        else
+            dernier = node.precedent;
+
+        taille--;
+    }
+
+    /**
+     * @return The number of items in the list.
+     */
+    @Override
+    public int taille() {
+        return taille;
+    }
+
+    /**
+     * @return The first item of the list, or null if the list is empty.
+     */
+    @Override
+    public Item<?> getPremier() {
+        return premier == null ? null : premier.item;
+    }
+
+    /**
+     * @return The last item of the list, or null if the list is empty.
+     */
+    @Override
+    public Item<?> getDernier() {
+        return dernier == null ? null : dernier.item;
+    }
+
+    /**
+     * @return A cursor going through the list from beginning to the end.
+     */
+    @Override
+    public Iterator<Item<?>> curseurDuDebut() {
+        return new Curseur(premier, false, null);
+    }
+
+    /**
+     * @return A cursor going through the list from the end to the beginning.
+     */
+    @Override
+    public Iterator<Item<?>> curseurDeLaFin() {
+        return new Curseur(dernier, true, null);
+    }
+
+    /**
+     * Gives a view of the part of the list that is between two items, in the
+     * order of the list (so debut should be the greatest one for a descending
+     * list). The view is not a copy: it goes through the nodes of the list
+     * each time it is iterated, and its cursors can remove items from the
+     * list.
+     *
+     * @param debut No item before this one in the list is in the view.
+     * @param fin   No item after this one in the list is in the view.
+     * @return The view of the items from debut to fin, both included.
+     */
+    @Override
+    public Iterable<Item<?>> entre(Item<?> debut, Item<?> fin) {
+        return () -> {
+            Noeud depart = premier;
+            while (depart != null && ordre(depart.item, debut) < 0)
+                depart = depart.suivant;
+            return new Curseur(depart, false, fin);
+        };
+    }
+
+    /**
+     * Removes the first item of the list that is equal to the given one
+     * (compareTo gives 0, like for the sorting).
+     *
+     * @param item The item to remove.
+     * @return true if an item was removed.
+     */
+    @Override
+    public boolean retirer(Item<?> item) {
+        for (Noeud node = premier; node != null; node = node.suivant) {
+            if (item.compareTo(node.item) == 0) {
+                retirerNoeud(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges other lists sorted in the same order into this one. The nodes
+     * of the other lists are moved into this list, without creating new nodes
+     * or items, and the other lists are left empty. A heap gives at each step
+     * the list whose first node comes first, so merging N nodes from k lists
+     * takes O(N log k). When only one list is left, the rest of its chain is
+     * linked at once.
+     *
+     * Equal items keep their order: those of this list come first, then
+     * those of each other list in the order they are given, like if all the
+     * items had been added to this list one after the other (as long as the
+     * items can be compared consistently, see noterType).
+     *
+     * @param autres The lists to merge into this one, in the same order.
+     * @throws IllegalArgumentException If a list is not sorted in the same
+     *                                  order or is given more than once.
+     */
+    public void fusionner(ListeDoublementChainee... autres) {
+        ListeDoublementChainee[] listes =
+                new ListeDoublementChainee[autres.length + 1];
+        listes[0] = this;
+        System.arraycopy(autres, 0, listes, 1, autres.length);
+
+        // The first node of each list that is not merged yet
+        Noeud[] tetes = new Noeud[listes.length];
+        // The lists that still have nodes, ordered by their first node, then
+        // by their position so equal items keep their order.
+        PriorityQueue<Integer> tas = new PriorityQueue<>(listes.length,
+                (i, j) -> {
+                    int comparaison = ordre(tetes[i].item, tetes[j].item);
+                    return comparaison != 0 ? comparaison
+                            : Integer.compare(i, j);
+                });
+
+        // We check every list before changing any of them
+        for (int i = 0; i < listes.length; i++) {
+            if (!listes[i].sens.equals(sens))
+                throw new IllegalArgumentException(
+                        "Les listes à fusionner n'ont pas le même sens");
+            for (int j = 0; j < i; j++)
+                if (listes[j] == listes[i])
+                    throw new IllegalArgumentException(
+                            "Une liste est donnée plus d'une fois");
+        }
+
+        int total = 0;
+        for (int i = 0; i < listes.length; i++) {
+            ListeDoublementChainee liste = listes[i];
+            tetes[i] = liste.premier;
+            if (tetes[i] != null)
+                tas.add(i);
+            total += liste.taille;
+            contientTexte |= liste.contientTexte;
+            contientNombre |= liste.contientNombre;
+            contientNaN |= liste.contientNaN;
+
+            // The nodes now belong to the merged chain
+            liste.premier = liste.dernier = liste.doigt = null;
+            liste.taille = 0;
+            if (liste != this)
+                liste.contientTexte = liste.contientNombre =
+                        liste.contientNaN = false;
+        }
+
+        while (!tas.isEmpty()) {
+            int i = tas.poll();
+            Noeud node = tetes[i];
+
+            // If it is the last list with nodes, we link all of them at once
+            Noeud fin = node;
+            if (tas.isEmpty()) {
+                while (fin.suivant != null)
+                    fin = fin.suivant;
+                tetes[i] = null;
+            } else {
+                tetes[i] = node.suivant;
+                node.suivant = null;
+                if (tetes[i] != null)
+                    tas.add(i);
+            }
+
+            // In counted mode, the first node may hold the same value as the
+            // last node of the merged chain.
+            if (compte && dernier != null && dernier.item.getValeur()
+                    .equals(node.item.getValeur())) {
+                dernier.nombre += node.nombre;
+                if (node == fin)
+                    continue;
+                node = node.suivant;
+            }
+
+            node.precedent = dernier;
+            if (dernier == null)
+                premier = node;
+            else
+                dernier.suivant = node;
+            dernier = fin;
+        }
+
+        taille = total;
+        doigt = dernier;
+    }
+
+    /**
+     * Custom serialization of the list. The default serialization would
+     * recurse through every precedent/suivant reference (and overflow the
+     * stack for long lists), so we instead write sens, the number of elements
+     * and then each value preceded by a tag giving its type. Strings are
+     * written as their length in bytes followed by their UTF-8 encoding, like
+     * in ecrireDans, since writeUTF can't write more than 65535 bytes.
+     * 
+     * @param out The stream in which the list is written.
+     * @throws IOException If the stream can't be written to.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // Writes sens and compte, the only non transient fields
+        out.defaultWriteObject();
+
+        // We write the number of nodes so the reader knows how many values to
+        // expect
+        out.writeInt(taille);
+
+        // We write the values in the order of the chain, so the reader does
+        // not need to sort them again. Every copy of a value is written, in
+        // counted mode or not.
+        for (Iterator<Item<?>> curseur = curseurDuDebut(); curseur.hasNext();) {
+            Object valeur = curseur.next().getValeur();
+            if (valeur instanceof Integer) {
+                out.writeByte(TAG_INTEGER);
+                out.writeInt((Integer) valeur);
+            } else if (valeur instanceof Double) {
+                out.writeByte(TAG_DOUBLE);
+                out.writeDouble((Double) valeur);
+            } else if (valeur instanceof String) {
+                out.writeByte(TAG_STRING);
+                ecrireString(out, (String) valeur);
+            } else {
+                // Any other Serializable value falls back on Java
+                // serialization
+                out.writeByte(TAG_OBJET);
+                out.writeObject(valeur);
+            }
+        }
+    }
+
+    /**
+     * Custom deserialization of the list, reads what was written by
+     * writeObject and rebuilds the links between the nodes.
+     * 
+     * @param in The stream from which the list is read.
+     * @throws IOException            If the stream can't be read or is
+     *                                corrupted.
+     * @throws ClassNotFoundException If a value of an unknown class is read.
+     */
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        int nombre = in.readInt();
+        for (int i = 0; i < nombre; i++) {
+            Item<?> item;
+            byte tag = in.readByte();
+            switch (tag) {
+                case TAG_INTEGER -> item = new Item<>(in.readInt());
+                case TAG_DOUBLE -> item = new Item<>(in.readDouble());
+                case TAG_STRING -> item = new Item<>(lireString(in));
+                case TAG_OBJET -> item =
+                        new Item<>((Serializable) in.readObject());
+                default -> throw new StreamCorruptedException(
+                        "Type de valeur inconnu: " + tag);
+            }
+
+            // The values are already sorted, so we only need to append them
+            // at the end of the chain.
+            ajouterALaFin(item);
+        }
+    }
+
+    /**
+     * Writes the list in the given buffer, using the same layout as
+     * writeObject (sens, compte as one byte, the number of elements and each
+     * tagged value), so it can be sent in a frame by CanalTrames. Strings are
+     * written as their length in bytes followed by their UTF-8 encoding.
+     * 
+     * @param tampon The buffer in which the list is written.
+     * @throws java.nio.BufferOverflowException If the buffer is too small, in
+     *                                          which case the caller should
+     *                                          retry with a bigger one.
+     */
+    public void ecrireDans(ByteBuffer tampon) {
+        ecrireString(tampon, sens);
+        tampon.put((byte) (compte ? 1 : 0));
+
+        tampon.putInt(taille);
+
+        for (Iterator<Item<?>> curseur = curseurDuDebut(); curseur.hasNext();) {
+            Object valeur = curseur.next().getValeur();
+            if (valeur instanceof Integer)
+                tampon.put(TAG_INTEGER).putInt((Integer) valeur);
+            else if (valeur instanceof Double)
+                tampon.put(TAG_DOUBLE).putDouble((Double) valeur);
+            else if (valeur instanceof String) {
+                tampon.put(TAG_STRING);
+                ecrireString(tampon, (String) valeur);
+            } else
+                throw new IllegalArgumentException("La valeur " + valeur
+                        + " ne peut pas être écrite dans un tampon");
+        }
+    }
+
+    /**
+     * Reads a list written by ecrireDans and rebuilds its nodes, in counted
+     * mode if the written list was.
+     * 
+     * @param tampon The buffer from which the list is read.
+     * @return The list read from the buffer.
+     * @throws StreamCorruptedException If a count, a length or a tag read
+     *                                  from the buffer is invalid.
+     * @throws java.nio.BufferUnderflowException If the buffer ends before
+     *                                           the list.
+     */
+    public static ListeDoublementChainee lireDe(ByteBuffer tampon)
+            throws StreamCorruptedException {
+        String sens = lireString(tampon);
+        ListeDoublementChainee liste =
+                new ListeDoublementChainee(sens, tampon.get() != 0);
+
+        int nombre = tampon.getInt();
+        if (nombre < 0)
+            throw new StreamCorruptedException(
+                    "Nombre d'éléments négatif: " + nombre);
+        for (int i = 0; i < nombre; i++) {
+            Item<?> item;
+            byte tag = tampon.get();
+            switch (tag) {
+                case TAG_INTEGER -> item = new Item<>(tampon.getInt());
+                case TAG_DOUBLE -> item = new Item<>(tampon.getDouble());
+                case TAG_STRING -> item = new Item<>(lireString(tampon));
+                default -> throw new StreamCorruptedException(
+                        "Type de valeur inconnu: " + tag);
+            }
+
+            // The values are already sorted, so we only need to append them
+            // at the end of the chain.
+            liste.ajouterALaFin(item);
+        }
+        return liste;
+    }
+
+    /**
+     * Creates a list from items that are already in its order, by adding
+     * each one at the end without comparing it, like lireDe does. The
+     * benchmarks use it to build long lists, since ajouterNoeud can take a
+     * quadratic time when texts and numbers are mixed.
+     * 
+     * @param sens  The order of the list, "asc" or "desc".
+     * @param items The items, in the order of the list.
+     * @return The list holding the items in the given order.
+     */
+    static ListeDoublementChainee depuisItems(String sens, Item<?>[] items) {
+        ListeDoublementChainee liste = new ListeDoublementChainee(sens);
+        for (Item<?> item : items)
+            liste.ajouterALaFin(item);
+        return liste;
+    }
+
+    // Helpers used to write and read strings in a buffer
+    private static void ecrireString(ByteBuffer tampon, String s) {
+        byte[] octets = s.getBytes(StandardCharsets.UTF_8);
+        tampon.putInt(octets.length).put(octets);
+    }
+
+    private static String lireString(ByteBuffer tampon)
+            throws StreamCorruptedException {
+        int longueur = tampon.getInt();
+        // The length is checked before allocating, the bytes must all be in
+        // the buffer
+        if (longueur < 0 || longueur > tampon.remaining())
+            throw new StreamCorruptedException(
+                    "Longueur de texte invalide: " + longueur);
+        byte[] octets = new byte[longueur];
+        tampon.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    // The same helpers for the streams of writeObject and readObject
+    private static void ecrireString(DataOutput out, String s)
+            throws IOException {
+        byte[] octets = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(octets.length);
+        out.write(octets);
+    }
+
+    private static String lireString(DataInput in) throws IOException {
+        int longueur = in.readInt();
+        if (longueur < 0)
+            throw new StreamCorruptedException(
+                    "Longueur de texte négative: " + longueur);
+        byte[] octets = new byte[longueur];
+        in.readFully(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
 }
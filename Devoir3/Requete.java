@@ -0,0 +1,39 @@
+import java.io.Serializable;
+
+/**
+ * Requete is sent by LeClient when the sorting is done by the server. It only
+ * contains the raw line read from the input file, which is the order of the
+ * sort and the list to sort, still as a string.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class Requete implements Serializable {
+    // The order in which the list will be sorted (ascending or descending).
+    private final String sens;
+    // The list to sort, as written in the input file (ex: '[1,2,3]')
+    private final String listeEnString;
+    // Used for the serializable interface, set to an arbitrary value
+    static final long serialVersionUID = 1L;
+
+
+    /**
+     * Constructor for a request.
+     *
+     * @param sens          The order in which the list will be sorted.
+     * @param listeEnString The list to sort, as a string.
+     */
+    public Requete(String sens, String listeEnString) {
+        this.sens = sens;
+        this.listeEnString = listeEnString;
+    }
+
+
+    // Getters
+    public String getSens() {
+        return sens;
+    }
+
+    public String getListeEnString() {
+        return listeEnString;
+    }
+}
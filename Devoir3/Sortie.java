@@ -0,0 +1,135 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cette classe garde un seul FileChannel ouvert sur le fichier de sortie du
+ * serveur pour toute sa durée de vie. Les écritures sont accumulées dans un
+ * grand tampon qui est vidé dans le fichier quand il est plein ou quand le
+ * délai maximal est écoulé, au lieu d'ouvrir et de fermer le fichier à chaque
+ * message.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class Sortie implements Closeable {
+	/**
+	 * Politique de synchronisation avec le disque (fsync) à appliquer quand
+	 * le tampon est vidé dans le fichier.
+	 */
+	public enum PolitiqueSync {
+		// On laisse le système d'exploitation décider quand écrire sur disque
+		JAMAIS,
+		// On force l'écriture sur disque à chaque vidage du tampon
+		A_CHAQUE_VIDAGE,
+		// On force l'écriture sur disque seulement à la fermeture
+		A_LA_FERMETURE
+	}
+
+	// Le canal vers le fichier, ouvert en mode ajout
+	private final FileChannel canal;
+	// Tampon dans lequel on accumule les données avant de les écrire
+	private final ByteBuffer tampon;
+	// Politique de fsync choisie à la création
+	private final PolitiqueSync politique;
+	// Encodage utilisé pour les String, le même que celui de FileWriter
+	private final Charset encodage;
+	// Vide le tampon régulièrement pour que les données n'y restent pas trop
+	// longtemps quand il y a peu de messages
+	private final ScheduledExecutorService minuterie;
+
+	/**
+	 * Constructeur de la sortie, ouvre le fichier en mode ajout et démarre
+	 * le vidage périodique du tampon.
+	 *
+	 * @param fichier      est le fichier dans lequel on écrit.
+	 * @param tailleTampon est le nombre d'octets accumulés avant un vidage.
+	 * @param delaiMaxMs   est le délai maximal en millisecondes pendant
+	 *                     lequel des données peuvent rester dans le tampon.
+	 * @param politique    est la politique de fsync à appliquer.
+	 * @throws IOException si le fichier ne peut pas être ouvert.
+	 */
+	public Sortie(Path fichier, int tailleTampon, long delaiMaxMs,
+			PolitiqueSync politique) throws IOException {
+		this.canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		this.tampon = ByteBuffer.allocateDirect(tailleTampon);
+		this.politique = politique;
+		this.encodage = Charset.defaultCharset();
+
+		this.minuterie = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "vidage-sortie");
+			t.setDaemon(true);
+			return t;
+		});
+		this.minuterie.scheduleWithFixedDelay(() -> {
+			try {
+				vider();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}, delaiMaxMs, delaiMaxMs, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Ajoute un String à la sortie. L'écriture est atomique: le String n'est
+	 * jamais coupé par celui d'un autre fil d'exécution.
+	 *
+	 * @param s est le String à écrire.
+	 * @throws IOException si le fichier ne peut pas être écrit.
+	 */
+	public synchronized void ecrire(String s) throws IOException {
+		ByteBuffer octets = encodage.encode(s);
+
+		// S'il n'y a pas assez de place, on vide d'abord le tampon
+		if (octets.remaining() > tampon.remaining())
+			vider();
+
+		// Un message plus grand que le tampon est écrit directement
+		if (octets.remaining() > tampon.capacity()) {
+			while (octets.hasRemaining())
+				canal.write(octets);
+			if (politique == PolitiqueSync.A_CHAQUE_VIDAGE)
+				canal.force(false);
+		} else
+			tampon.put(octets);
+	}
+
+	/**
+	 * Écrit dans le fichier tout ce qui est présentement dans le tampon.
+	 *
+	 * @throws IOException si le fichier ne peut pas être écrit.
+	 */
+	public synchronized void vider() throws IOException {
+		if (tampon.position() == 0)
+			return;
+
+		tampon.flip();
+		while (tampon.hasRemaining())
+			canal.write(tampon);
+		tampon.clear();
+
+		if (politique == PolitiqueSync.A_CHAQUE_VIDAGE)
+			canal.force(false);
+	}
+
+	/**
+	 * Vide le tampon, applique la politique de fsync et ferme le fichier.
+	 *
+	 * @throws IOException si le fichier ne peut pas être écrit ou fermé.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		minuterie.shutdownNow();
+		vider();
+		if (politique != PolitiqueSync.JAMAIS)
+			canal.force(false);
+		canal.close();
+	}
+}
@@ -0,0 +1,82 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Les opérations mesurées par les bancs JMH du paquet banc, qui ne peuvent
+ * pas utiliser directement les classes du paquet par défaut.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class OperationsBanc implements banc.Operations {
+	@Override
+	public Object[] creerItems(String[] elements) {
+		Item<?>[] items = new Item<?>[elements.length];
+		for (int i = 0; i < elements.length; i++)
+			items[i] = ListeDoublementChainee.creerItem(elements[i]);
+		return items;
+	}
+
+	@Override
+	public Object ajouterNoeud(Object[] items) {
+		ListeDoublementChainee ldc = new ListeDoublementChainee("asc");
+		for (Object item : items)
+			ldc.ajouterNoeud((Item<?>) item);
+		return ldc;
+	}
+
+	@Override
+	public Object ajouterListe(String listeEnString) {
+		ListeDoublementChainee ldc = new ListeDoublementChainee("asc");
+		ldc.ajouterListe(listeEnString);
+		return ldc;
+	}
+
+	@Override
+	public int comparer(Object item, Object autre) {
+		return ((Item<?>) item).compareTo(autre);
+	}
+
+	@Override
+	public long imprimer(Object liste) {
+		ListeDoublementChainee ldc = (ListeDoublementChainee) liste;
+		return ldc.imprimerListeDuDebut().length()
+				+ ldc.imprimerListeDeLaFin().length();
+	}
+
+	@Override
+	public Object depuisItems(Object[] items) {
+		Item<?>[] copie = new Item<?>[items.length];
+		System.arraycopy(items, 0, copie, 0, items.length);
+		return ListeDoublementChainee.depuisItems("asc", copie);
+	}
+
+	@Override
+	public byte[] ecrireObjet(Object liste) throws Exception {
+		ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(octets)) {
+			out.writeObject(liste);
+		}
+		return octets.toByteArray();
+	}
+
+	@Override
+	public Object lireObjet(byte[] octets) throws Exception {
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(octets))) {
+			return in.readObject();
+		}
+	}
+
+	@Override
+	public void ecrireDans(Object liste, ByteBuffer tampon) {
+		((ListeDoublementChainee) liste).ecrireDans(tampon);
+	}
+
+	@Override
+	public Object lireDe(ByteBuffer tampon) throws Exception {
+		return ListeDoublementChainee.lireDe(tampon);
+	}
+}
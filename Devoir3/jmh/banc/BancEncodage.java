@@ -0,0 +1,117 @@
+package banc;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bancs JMH de l'écriture et de la lecture de la liste, mesurées séparément,
+ * avec la sérialisation de Java (writeObject et readObject) et avec
+ * ecrireDans et lireDe, pour chaque mélange de types. La liste d'un million
+ * d'éléments est construite en ajoutant ses items à la fin, car ajouterNoeud
+ * serait quadratique pour un mélange de textes et de nombres.
+ *
+ * JMH ne donne que des temps, donc le nombre d'octets écrits par chaque façon
+ * est affiché à la préparation du banc.
+ *
+ * @author Nicolas Levasseur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BancEncodage {
+	@Param({ "entiers", "doubles", "strings", "melange" })
+	public String melange;
+
+	@Param({ "2000", "1000000" })
+	public int taille;
+
+	private Operations operations;
+	private Object liste;
+	private byte[] serialisee;
+	private ByteBuffer ecrit;
+	private ByteBuffer tampon;
+
+	/**
+	 * Crée la liste avec une graine fixe, puis l'écrit une première fois des
+	 * deux façons pour les bancs de lecture. Les items sont triés d'avance
+	 * quand ils se comparent de façon cohérente. Ceux d'un mélange de textes
+	 * et de nombres restent dans l'ordre où ils ont été tirés, ce qui ne
+	 * change pas le temps pour les écrire ou les lire.
+	 */
+	@Setup(Level.Trial)
+	public void preparer() throws Exception {
+		operations = Operations.charger();
+
+		Random rnd = new Random(42);
+		String[] elements = new String[taille];
+		for (int i = 0; i < taille; i++) {
+			int type = switch (melange) {
+				case "entiers" -> 0;
+				case "doubles" -> 1;
+				case "strings" -> 2;
+				default -> rnd.nextInt(3);
+			};
+			elements[i] = switch (type) {
+				case 0 -> Integer.toString(rnd.nextInt(1000));
+				case 1 -> Double.toString(rnd.nextInt(100000) / 100.0);
+				default -> "mot" + rnd.nextInt(1000);
+			};
+		}
+
+		Object[] items = operations.creerItems(elements);
+		if (!melange.equals("melange"))
+			Arrays.sort(items);
+		liste = operations.depuisItems(items);
+
+		serialisee = operations.ecrireObjet(liste);
+		ecrit = ByteBuffer.allocate(64 * taille + 64);
+		operations.ecrireDans(liste, ecrit);
+		ecrit.flip();
+		// Alloué une seule fois, pour ne pas mesurer sa mise à zéro
+		tampon = ByteBuffer.allocate(ecrit.limit());
+
+		System.out.printf("%n%s, %d éléments: writeObject %d octets, "
+				+ "ecrireDans %d octets%n", melange, taille,
+				serialisee.length, ecrit.limit());
+	}
+
+	@Benchmark
+	public byte[] writeObject() throws Exception {
+		return operations.ecrireObjet(liste);
+	}
+
+	@Benchmark
+	public Object readObject() throws Exception {
+		return operations.lireObjet(serialisee);
+	}
+
+	@Benchmark
+	public int ecrireDans() {
+		tampon.clear();
+		operations.ecrireDans(liste, tampon);
+		return tampon.position();
+	}
+
+	@Benchmark
+	public Object lireDe() throws Exception {
+		return operations.lireDe(ecrit.duplicate());
+	}
+}
@@ -0,0 +1,99 @@
+package banc;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Bancs JMH des opérations principales de la liste doublement chainée
+ * (ajouterNoeud, ajouterListe, Item.compareTo et impression) pour chaque
+ * mélange de types: entiers, doubles, strings ou un mélange des trois. Ce
+ * sont les mêmes mesures que BancEssai, mais avec les forks et les marges
+ * d'erreur de JMH. L'écriture et la lecture de la liste sont mesurées par
+ * BancEncodage.
+ *
+ * @author Nicolas Levasseur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BancListe {
+	@Param({ "entiers", "doubles", "strings", "melange" })
+	public String melange;
+
+	@Param({ "2000" })
+	public int taille;
+
+	private Operations operations;
+	private String listeEnString;
+	private Object[] items;
+	private Object triee;
+
+	/**
+	 * Crée les éléments d'une liste, sous forme de String comme dans le
+	 * fichier d'entrée, pour le mélange de types du banc. La graine est fixe,
+	 * donc chaque version de la liste est mesurée sur les mêmes listes.
+	 */
+	@Setup(Level.Trial)
+	public void preparer() throws ReflectiveOperationException {
+		operations = Operations.charger();
+
+		Random rnd = new Random(42);
+		String[] elements = new String[taille];
+		for (int i = 0; i < taille; i++) {
+			int type = switch (melange) {
+				case "entiers" -> 0;
+				case "doubles" -> 1;
+				case "strings" -> 2;
+				default -> rnd.nextInt(3);
+			};
+			elements[i] = switch (type) {
+				case 0 -> Integer.toString(rnd.nextInt(1000));
+				case 1 -> Double.toString(rnd.nextInt(100000) / 100.0);
+				default -> "mot" + rnd.nextInt(1000);
+			};
+		}
+
+		listeEnString = "[" + String.join(",", elements) + "]";
+		items = operations.creerItems(elements);
+		triee = operations.ajouterNoeud(items);
+	}
+
+	@Benchmark
+	public Object ajouterNoeud() {
+		return operations.ajouterNoeud(items);
+	}
+
+	@Benchmark
+	public Object ajouterListe() {
+		return operations.ajouterListe(listeEnString);
+	}
+
+	// Compare chaque item au précédent
+	@Benchmark
+	public void compareTo(Blackhole trou) {
+		for (int i = 1; i < items.length; i++)
+			trou.consume(operations.comparer(items[i], items[i - 1]));
+	}
+
+	@Benchmark
+	public long impression() {
+		return operations.imprimer(triee);
+	}
+}
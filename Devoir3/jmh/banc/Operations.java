@@ -0,0 +1,54 @@
+package banc;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Les opérations de la liste mesurées par les bancs. La liste est dans le
+ * paquet par défaut, qu'on ne peut pas importer, et JMH refuse les bancs de
+ * ce paquet. Les opérations sont donc faites par la classe OperationsBanc du
+ * paquet par défaut, chargée par son nom, et les listes et les items passent
+ * par Object.
+ *
+ * @author Nicolas Levasseur
+ */
+public interface Operations {
+	/**
+	 * Charge les opérations du paquet par défaut.
+	 *
+	 * @return les opérations de la liste.
+	 */
+	static Operations charger() throws ReflectiveOperationException {
+		return (Operations) Class.forName("OperationsBanc")
+				.getDeclaredConstructor().newInstance();
+	}
+
+	// Crée les items des éléments, comme ajouterListe le fait
+	Object[] creerItems(String[] elements);
+
+	// Crée une liste en ajoutant les items un à la fois avec ajouterNoeud
+	Object ajouterNoeud(Object[] items);
+
+	// Crée une liste avec ajouterListe
+	Object ajouterListe(String listeEnString);
+
+	// Compare deux items avec Item.compareTo
+	int comparer(Object item, Object autre);
+
+	// Imprime la liste dans les deux sens et retourne le nombre de caractères
+	long imprimer(Object liste);
+
+	// Crée une liste en ajoutant les items à la fin, sans les comparer
+	Object depuisItems(Object[] items);
+
+	// Écrit la liste avec la sérialisation de Java
+	byte[] ecrireObjet(Object liste) throws Exception;
+
+	// Relit une liste écrite par ecrireObjet
+	Object lireObjet(byte[] octets) throws Exception;
+
+	// Écrit la liste dans le tampon avec ecrireDans
+	void ecrireDans(Object liste, ByteBuffer tampon);
+
+	// Relit une liste écrite par ecrireDans avec lireDe
+	Object lireDe(ByteBuffer tampon) throws Exception;
+}
@@ -0,0 +1,154 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import conditionsinitialesinvalides.ConditionsInitialesInvalides;
+import organisme.*;
+
+/**
+ * Ce programme mesure le temps d'un cycle du lac pour une grande population de
+ * plantes d'une seule espèce. Le soleil ne donne que la moitié de l'énergie
+ * dont les plantes ont besoin, donc une bonne partie d'entre elles meurent à
+ * chaque cycle, ce qui est le pire cas pour le retrait des organismes morts.
+ *
+ * Options: --plantes N (1 000 000 par défaut), --nombre-cycles K (5 par
+ * défaut) et --fils F (nombre de fils d'exécution, 1 par défaut). La graine
+ * est fixe, donc le résultat est le même peu importe le nombre de fils.
+ *
+ * Pour mesurer la chasse, --herbivores N et --carnivores N ajoutent des
+ * perches qui mangent les algues et des brochets qui mangent les perches et
+ * les autres brochets (0 par défaut), et --predation-parallele les fait
+ * chasser tous en même temps. On compare les temps avec différents --fils
+ * pour voir comment la chasse profite des fils d'exécution.
+ *
+ * Avec --cohortes PAS, les plantes sont simulées par cohortes avec ce pas
+ * d'énergie, ce qui permet d'aller jusqu'à des milliards de plantes.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class BancLac {
+    public static void main(String[] args) {
+        int nombrePlantes = 1_000_000;
+        int nombreCycles = 5;
+        int fils = 1;
+        int nombreHerbivores = 0;
+        int nombreCarnivores = 0;
+        boolean predationParallele = false;
+        double pasCohortes = 0;
+
+        Iterator<String> argsIterator = Arrays.stream(args).iterator();
+        while (argsIterator.hasNext()) {
+            var next = argsIterator.next();
+            switch (next) {
+                case "--plantes" -> nombrePlantes =
+                        Integer.parseInt(argsIterator.next());
+                case "--nombre-cycles" -> nombreCycles =
+                        Integer.parseInt(argsIterator.next());
+                case "--fils" -> fils = Integer.parseInt(argsIterator.next());
+                case "--herbivores" -> nombreHerbivores =
+                        Integer.parseInt(argsIterator.next());
+                case "--carnivores" -> nombreCarnivores =
+                        Integer.parseInt(argsIterator.next());
+                case "--predation-parallele" -> predationParallele = true;
+                case "--cohortes" -> pasCohortes =
+                        Double.parseDouble(argsIterator.next());
+                default -> {
+                    System.out.println(
+                            "erreur: option inconnue \"" + next + "\"");
+                    return;
+                }
+            }
+        }
+
+        Lac lac;
+        try {
+            lac = creerLac(nombrePlantes, nombreHerbivores, nombreCarnivores,
+                    pasCohortes);
+        } catch (ConditionsInitialesInvalides e) {
+            System.out.println("erreur: je ne peux pas créer les organismes");
+            e.printStackTrace();
+            return;
+        }
+        lac.setGraine(42);
+        lac.setFils(fils);
+        lac.setPredationParallele(predationParallele);
+
+        for (int i = 0; i < nombreCycles; i++) {
+            long debut = System.nanoTime();
+            lac.tick();
+            long duree = System.nanoTime() - debut;
+            System.out.printf("cycle %d: %.1f ms%n", i, duree / 1e6);
+        }
+        lac.imprimeRapport(System.out);
+    }
+
+    /**
+     * Crée le lac mesuré: des algues qui ne reçoivent que la moitié de
+     * l'énergie dont elles ont besoin, des perches qui les mangent et des
+     * brochets qui mangent les perches et les autres brochets. Les bancs JMH
+     * mesurent le même lac.
+     *
+     * @param nombrePlantes    le nombre d'algues
+     * @param nombreHerbivores le nombre de perches
+     * @param nombreCarnivores le nombre de brochets
+     * @param pasCohortes      le pas d'énergie des cohortes de plantes, 0
+     *                         pour des plantes individuelles
+     * @return le lac, sans graine ni fils d'exécution
+     */
+    static Lac creerLac(int nombrePlantes, int nombreHerbivores,
+            int nombreCarnivores, double pasCohortes)
+            throws ConditionsInitialesInvalides {
+        var plantes = new PopulationPlantes();
+        var cohortes = pasCohortes > 0 ? new CohortesPlantes(pasCohortes)
+                : null;
+        List<Herbivore> herbivores = new ArrayList<>();
+        List<Carnivore> carnivores = new ArrayList<>();
+        var usine = new UsinePlante();
+        usine.setNomEspece("algue");
+        usine.setBesoinEnergie(1.0);
+        usine.setEfficaciteEnergie(0.5);
+        usine.setResilience(0.5);
+        usine.setFertilite(0.2);
+        usine.setAgeFertilite(0);
+        usine.setEnergieEnfant(1.0);
+        if (cohortes != null)
+            cohortes.ajouter(usine.creerEspece(), nombrePlantes);
+        else
+            plantes.ajouter(usine.creerEspece(), nombrePlantes);
+
+        var usineHerbivore = new UsineHerbivore();
+        usineHerbivore.setNomEspece("perche");
+        usineHerbivore.setBesoinEnergie(1.0);
+        usineHerbivore.setEfficaciteEnergie(0.5);
+        usineHerbivore.setResilience(0.5);
+        usineHerbivore.setFertilite(0.2);
+        usineHerbivore.setAgeFertilite(0);
+        usineHerbivore.setEnergieEnfant(2.0);
+        usineHerbivore.setDebrouillardise(0.5);
+        usineHerbivore.setVoraciteMax(0.5);
+        usineHerbivore.setVoraciteMin(0.1);
+        usineHerbivore.addAliment("algue");
+        for (int i = 0; i < nombreHerbivores; i++)
+            herbivores.add(usineHerbivore.creerOrganisme());
+
+        var usineCarnivore = new UsineCarnivore();
+        usineCarnivore.setNomEspece("brochet");
+        usineCarnivore.setBesoinEnergie(2.0);
+        usineCarnivore.setEfficaciteEnergie(0.5);
+        usineCarnivore.setResilience(0.5);
+        usineCarnivore.setFertilite(0.2);
+        usineCarnivore.setAgeFertilite(0);
+        usineCarnivore.setEnergieEnfant(5.0);
+        usineCarnivore.setDebrouillardise(0.5);
+        usineCarnivore.addAliment("perche");
+        usineCarnivore.addAliment("brochet");
+        for (int i = 0; i < nombreCarnivores; i++)
+            carnivores.add(usineCarnivore.creerOrganisme());
+
+        // Chaque plante a besoin d'une unité d'énergie par cycle
+        return cohortes != null
+                ? new Lac(nombrePlantes / 2, cohortes, herbivores, carnivores)
+                : new Lac(nombrePlantes / 2, plantes, herbivores, carnivores);
+    }
+}
@@ -22,11 +22,24 @@ import conditionsinitialesinvalides.ConditionsInitialesInvalides;
  */
 public final class ConditionsInitiales {
     private final XMLEventReader reader;
+    // Pas d'énergie des cohortes de plantes, 0 si les plantes sont simulées
+    // une par une
+    private double pasCohortes;
 
     public ConditionsInitiales(XMLEventReader reader) {
         this.reader = reader;
     }
 
+    /**
+     * Fait simuler les plantes du prochain lac par cohortes, pour les très
+     * grandes populations (voir CohortesPlantes).
+     *
+     * @param pasCohortes Largeur des classes d'énergie des cohortes.
+     */
+    public void setPasCohortes(double pasCohortes) {
+        this.pasCohortes = pasCohortes;
+    }
+
 
     /**
      * Method used to initialize the specifics parameters of a herbivore. We
@@ -127,6 +140,18 @@ public final class ConditionsInitiales {
         }
     }
 
+    /**
+     * Reads the number of organisms to create from the "quantite" attribute.
+     *
+     * @param startElement XMLEventReader starts element.
+     * @return the number of organisms to create.
+     */
+    private int quantity(StartElement startElement) {
+        var quantityAttribute =
+                startElement.getAttributeByName(new QName("quantite"));
+        return Integer.parseInt(quantityAttribute.getValue());
+    }
+
     /**
      * General method to initialize a list of specialized organisms
      *
@@ -138,9 +163,7 @@ public final class ConditionsInitiales {
     private void initialisationOrganisme(StartElement startElement,
             UsineOrganisme usine, List<Organisme> organismes)
             throws ConditionsInitialesInvalides {
-        var quantityAttribute =
-                startElement.getAttributeByName(new QName("quantite"));
-        var quantity = Integer.parseInt(quantityAttribute.getValue());
+        var quantity = this.quantity(startElement);
         this.nextOrganisme(usine);
         for (int i = 0; i < quantity; i++) {
             organismes.add(usine.creerOrganisme());
@@ -171,7 +194,11 @@ public final class ConditionsInitiales {
 
 
         Integer energieSolaire = null;
-        List<Plante> plantes = new ArrayList<>();
+        // Les plantes sont gardées dans des tableaux plutôt qu'en objets, ou
+        // en cohortes si un pas a été donné
+        PopulationPlantes plantes = new PopulationPlantes();
+        CohortesPlantes cohortes =
+                pasCohortes > 0 ? new CohortesPlantes(pasCohortes) : null;
         List<Herbivore> herbivores = new ArrayList<>();
         // La liste des carnivores a été ajouté
         List<Carnivore> carnivores = new ArrayList<>();
@@ -187,9 +214,13 @@ public final class ConditionsInitiales {
                         this.skipEndTag();
                     }
                     case "plante" -> {
-                        initialisationOrganisme(startElement,
-                                new UsinePlante(),
-                                (List<Organisme>) (List<?>) plantes);
+                        var usine = new UsinePlante();
+                        var quantity = this.quantity(startElement);
+                        this.nextOrganisme(usine);
+                        if (cohortes != null)
+                            cohortes.ajouter(usine.creerEspece(), quantity);
+                        else
+                            plantes.ajouter(usine.creerEspece(), quantity);
                     }
                     case "herbivore" -> {
                         initialisationOrganisme(startElement,
@@ -217,6 +248,8 @@ public final class ConditionsInitiales {
                     "energieSolaire non spécifiée");
         }
 
+        if (cohortes != null)
+            return new Lac(energieSolaire, cohortes, herbivores, carnivores);
         return new Lac(energieSolaire, plantes, herbivores, carnivores);
     }
 
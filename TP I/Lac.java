@@ -1,10 +1,15 @@
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Collections;
+import java.util.IdentityHashMap;
 
 import static java.util.stream.Collectors.*;
 
@@ -23,14 +28,45 @@ import organisme.*;
 public final class Lac {
     // Solar energy distributed to the plants at each tick
     private final int energieSolaire;
-    // All alive plants in the lake
-    private final List<Plante> plantes;
+    // All alive plants in the lake, stored in arrays instead of objects
+    private final PopulationPlantes plantes;
+    // The plants of the lake as cohorts, null unless the lake was built with
+    // them, in which case plantes stays empty
+    private final CohortesPlantes cohortes;
     // All alive herbivores in the lake
     private final List<Herbivore> herbivores;
     // All alive carnivores in the lake
     private final List<Carnivore> carnivores;
-    // Used to generate random numbers
-    private final Random rnd;
+    // Source of all of the random numbers of the lake. Each phase of a tick
+    // gets its own stream split from it, in order, so two lakes with the same
+    // seed and the same initial conditions give the same results.
+    private SplittableRandom generateur;
+    // Pool on which the phases that can be parallel are run, null to run
+    // everything in the calling thread
+    private ForkJoinPool pool;
+    // Tells if the carnivores hunt all at the same time, with
+    // carnivoreTickParallele(), instead of one after the other
+    private boolean predationParallele;
+    // All animals that can be eaten by a carnivore, grouped by the name of
+    // their species. An animal that dies stays in its pool until the end of
+    // the carnivores' tick, it is marked dead and skipped when it is drawn.
+    private final Map<String, List<Animal>> proies;
+    // Sees the meals of the carnivores, null unless a check watches them
+    private TemoinPredation temoin;
+
+    // Number of random draws a carnivore makes in its pools before listing
+    // all of its possible preys, when most of the preys drawn are dead or
+    // have too much energy.
+    private static final int TIRAGES_MAX = 16;
+    // Number of herbivores in a partition of the herbivores' tick
+    private static final int TAILLE_PARTITION_ANIMAUX = 1 << 10;
+    // Number of meals in a part of the meals eaten in parallel, a part is
+    // made longer so the meals of a plant are never in two parts
+    private static final int TAILLE_PARTITION_REPAS = 1 << 14;
+    // States of a meal of the parallel predation that has no prey: it must
+    // draw one in the next round, or there was none left for it
+    private static final int A_TIRER = -1;
+    private static final int ABANDONNE = -2;
 
     /**
      * Constructor for Lac, sets all its parameters to given values and
@@ -43,288 +79,909 @@ public final class Lac {
      */
     public Lac(int energieSolaire, List<Plante> plantes,
             List<Herbivore> herbivores, List<Carnivore> carnivores) {
+        this(energieSolaire, new PopulationPlantes(plantes), herbivores,
+                carnivores);
+    }
+
+    /**
+     * Constructor for Lac with plants that are already in a population, so a
+     * big lake does not need a Plante object for each of its plants.
+     * 
+     * @param energieSolaire Solar energy distributed to the plants at each
+     *                       tick
+     * @param plantes        All of the alive plants in the lake
+     * @param herbivores     List of all of the alive herbivores in the lake
+     */
+    public Lac(int energieSolaire, PopulationPlantes plantes,
+            List<Herbivore> herbivores, List<Carnivore> carnivores) {
+        this(energieSolaire, plantes, null, herbivores, carnivores);
+    }
+
+    /**
+     * Constructor for Lac with plants simulated by cohorts, so a lake can
+     * have billions of plants. The results are approximately those of the
+     * lake with individual plants, see CohortesPlantes.
+     * 
+     * @param energieSolaire Solar energy distributed to the plants at each
+     *                       tick
+     * @param cohortes       All of the alive plants in the lake, by cohorts
+     * @param herbivores     List of all of the alive herbivores in the lake
+     */
+    public Lac(int energieSolaire, CohortesPlantes cohortes,
+            List<Herbivore> herbivores, List<Carnivore> carnivores) {
+        this(energieSolaire, new PopulationPlantes(), cohortes, herbivores,
+                carnivores);
+    }
+
+    private Lac(int energieSolaire, PopulationPlantes plantes,
+            CohortesPlantes cohortes, List<Herbivore> herbivores,
+            List<Carnivore> carnivores) {
         this.energieSolaire = energieSolaire;
         this.plantes = plantes;
+        this.cohortes = cohortes;
         this.herbivores = herbivores;
         this.carnivores = carnivores;
-        this.rnd = new Random();
+        this.generateur = new SplittableRandom();
+
+        this.proies = new HashMap<String, List<Animal>>();
+        for (Herbivore herbivore : herbivores)
+            ajouterProie(herbivore);
+        for (Carnivore carnivore : carnivores)
+            ajouterProie(carnivore);
     }
 
+    /**
+     * Sets the seed of the random numbers of the lake, so the simulation can
+     * be reproduced. Without it, the seed is different at every run.
+     * 
+     * @param graine the seed of the random numbers
+     */
+    public void setGraine(long graine) {
+        this.generateur = new SplittableRandom(graine);
+    }
 
     /**
-     * We simulate what happens for all of the plants during a tick.
+     * Sets the number of threads used by the phases that can be parallel.
+     * Since each partition of the population has its own random numbers, a
+     * seeded simulation gives the same results with any number of threads.
+     * 
+     * @param fils the number of threads, 1 to run everything sequentially
      */
-    private void plantTick() {
-        // We cycle through the plants and get the total amount of energy
-        // shared by the plants
-        double sommeEnergie = 0;
-        for (Plante plante : plantes)
-            sommeEnergie += plante.getEnergie();
-
-        // We give energy to each plant in the plants list according to its
-        // current energy level and update their age
-        for (int i = 0; i < plantes.size(); i++) {
-            plantes.get(i).augmenteAge();
-
-            // This division is safe to make because we would not be in this
-            // for loop if sommeEnergie = 0 because the energy of a plant can
-            // never be less than 0 and we know we have more than 0 plants if
-            // we are in the loop
-            int nbrNouvellesPlantes =
-                    plantes.get(i).absortionEnergie(plantes.get(i).getEnergie()
-                            * energieSolaire / sommeEnergie);
-
-
-            // If we have a negative number of new plants, we remove the plant
-            if (nbrNouvellesPlantes < 0)
-                plantes.remove(i);
-
-            // If we have a positive number of new plants, we create new plants
-            // until the number is not more than 0
-            else
-                while (nbrNouvellesPlantes > 0) {
-                    plantes.add(plantes.get(i).copy());
-                    nbrNouvellesPlantes--;
-                }
+    public void setFils(int fils) {
+        if (pool != null)
+            pool.shutdown();
+        this.pool = fils > 1 ? new ForkJoinPool(fils) : null;
+    }
+
+    /**
+     * Chooses how the carnivores hunt. By default, they hunt one after the
+     * other and each one sees what the ones before it did. In parallel, they
+     * all hunt at the same time from the state of the lake at the beginning
+     * of their tick, see carnivoreTickParallele().
+     * 
+     * @param predationParallele true to make the carnivores hunt in parallel
+     */
+    public void setPredationParallele(boolean predationParallele) {
+        this.predationParallele = predationParallele;
+    }
+
+    /**
+     * Watches the meals of the carnivores, so a check like VerifPredation can
+     * see who eats whom. In parallel predation, repas() is called from the
+     * threads of the pool.
+     * 
+     * @author Nicolas Levasseur
+     */
+    interface TemoinPredation {
+        /**
+         * Called when a carnivore eats a prey, before the prey is marked
+         * dead.
+         */
+        void repas(Carnivore carnivore, Animal proie);
+
+        /**
+         * Called at the end of each parallel predation with the number of
+         * rounds of claims it took.
+         */
+        void rondes(int nombre);
+    }
+
+    /**
+     * Sets the witness of the meals of the carnivores, null for none.
+     * 
+     * @param temoin the witness of the meals
+     */
+    void setTemoin(TemoinPredation temoin) {
+        this.temoin = temoin;
+    }
+
+    /**
+     * Adds an animal to the pool of its species, so carnivores can eat it.
+     * 
+     * @param animal the animal that can now be eaten
+     */
+    private void ajouterProie(Animal animal) {
+        proies.computeIfAbsent(animal.getNomEspece(),
+                nomEspece -> new ArrayList<Animal>()).add(animal);
+    }
+
+
+    /**
+     * We simulate what happens for all of the plants during a tick. Every
+     * plant that is alive at the beginning of the tick gets exactly one turn.
+     * The plants that die are all removed at the end, and the new plants are
+     * added after that, so they do not get a turn before the next tick. The
+     * loop itself is done by the population, on its arrays, in parallel if
+     * the lake has a pool, or by the cohorts.
+     * 
+     * @param rnd the random numbers of the phase
+     */
+    private void plantTick(SplittableRandom rnd) {
+        if (cohortes != null)
+            cohortes.tick(energieSolaire, rnd);
+        else
+            plantes.tick(energieSolaire, rnd, pool);
+    }
+
+    /**
+     * The meals chosen by the herbivores of a partition during the first
+     * phase of their tick. For each meal, we keep the index of the herbivore,
+     * the index of the plant and the voracity, in the order of the
+     * herbivores and then in the order the meals were found.
+     * 
+     * @author Nicolas Levasseur
+     */
+    private static final class Repas {
+        private int[] herbivore = new int[16];
+        private int[] plante = new int[16];
+        private double[] voracite = new double[16];
+        // Number of meals
+        private int taille;
+        // Index of the first meal of the partition among all of the meals
+        private int debut;
+        // The herbivores born in the partition during the tick
+        private final List<Herbivore> naissances = new ArrayList<Herbivore>();
+
+        private void ajouter(int iHerbivore, int iPlante, double v) {
+            if (taille == plante.length) {
+                herbivore = Arrays.copyOf(herbivore, taille * 2);
+                plante = Arrays.copyOf(plante, taille * 2);
+                voracite = Arrays.copyOf(voracite, taille * 2);
+            }
+            herbivore[taille] = iHerbivore;
+            plante[taille] = iPlante;
+            voracite[taille] = v;
+            taille++;
         }
     }
 
+    // Index of the first animal of a partition
+    private static int debutAnimaux(int partition) {
+        return partition * TAILLE_PARTITION_ANIMAUX;
+    }
+
+    // Index after the last animal of a partition of the given list
+    private static int finAnimaux(int partition, List<?> animaux) {
+        return Math.min(debutAnimaux(partition) + TAILLE_PARTITION_ANIMAUX,
+                animaux.size());
+    }
+
     /**
-     * Method called exclusively in herbivoreTick(), check if the Map
-     * alimentationHerbivore needs updating and updates it if needed.
+     * First phase of the herbivores' tick, for a partition: each herbivore
+     * gets older and chooses its meals, a plant and a voracity for each, but
+     * does not eat them yet.
      * 
-     * @param nombreRepas            number of time the herbivore eats
-     * @param herbivore              the current herbivore that is trying to
-     *                               eat
+     * @param partition              the index of the partition
+     * @param rnd                    the random numbers of the partition
      * @param alimentationHerbivores links the different herbivore species to
      *                               what they can currently eat in the lake.
+     * @return the meals chosen by the herbivores of the partition
      */
-    private void updateAlimentationHerbivore(int nombreRepas,
-            Herbivore herbivore,
-            Map<String, List<Plante>> alimentationHerbivores) {
-        // We test if we need to update alimentationHerbivores
-        if (nombreRepas != 0 && !alimentationHerbivores
-                .containsKey(herbivore.getNomEspece())) {
-
-            // We create a list to put all of the aliments available in the
-            // lake and we put them in it
-            List<Plante> aliments = new ArrayList<Plante>();
-            for (int i = 0; i < plantes.size(); i++)
-                if (herbivore.getAliments()
-                        .contains(plantes.get(i).getNomEspece()))
-                    aliments.add(plantes.get(i));
-
-            alimentationHerbivores.put(herbivore.getNomEspece(), aliments);
+    private Repas choisirRepas(int partition, SplittableRandom rnd,
+            Map<Espece, int[]> alimentationHerbivores) {
+        Repas repas = new Repas();
+        for (int i = debutAnimaux(partition);
+                i < finAnimaux(partition, herbivores); i++) {
+            final Herbivore herbivore = herbivores.get(i);
+            herbivore.augmenteAge();
+
+            // We find how much times does the herbivore eat
+            double voracite[] = herbivore.alimentation(rnd);
+
+            // We take all of the available plants to eat for the herbivore
+            // and we choose one for each meal
+            int[] aliments =
+                    alimentationHerbivores.get(herbivore.getEspece());
+            for (int j = 0; j < voracite.length; j++)
+                if (aliments.length != 0)
+                    repas.ajouter(i, aliments[rnd.nextInt(aliments.length)],
+                            voracite[j]);
         }
+        return repas;
     }
 
     /**
-     * We simulate what happens for all of the herbivores during a tick.
+     * Second phase of the herbivores' tick: the meals of all of the
+     * partitions are eaten. The meals of a plant are eaten in the order of
+     * the herbivores, like if each herbivore had eaten in turn, so each meal
+     * takes its voracity of what the herbivores before it left. The meals of
+     * different plants do not change each other, so they are sorted by plant
+     * and parts of them are eaten in parallel.
+     * 
+     * @param repas the meals of each partition
+     * @return the energy given by each meal, in the order of the partitions
      */
-    private void herbivoreTick() {
-        // Map that associates an herbivore's spieces name to a list of all
-        // the available and alive plants they can eat
-        Map<String, List<Plante>> alimentationHerbivores =
-                new HashMap<String, List<Plante>>();
-
-        for (int i = 0; i < herbivores.size(); i++) {
-            // Copy of herbivores that is used to call getters, did not want
-            // to spend too much time on how Java will handle changes made to
-            // this herbivore and will they be reflected on the herbivore in
-            // herbivores so we do not modify this herbivore
-            final Herbivore herbivore = herbivores.get(i);
+    private double[] mangerRepas(Repas[] repas) {
+        int total = 0;
+        for (Repas r : repas) {
+            r.debut = total;
+            total = Math.addExact(total, r.taille);
+        }
 
-            herbivores.get(i).augmenteAge();
+        // Each meal is a key with the plant in the high bits and the index of
+        // the meal in the low bits, so sorting the keys groups the meals by
+        // plant and keeps the order of the herbivores for each plant
+        long[] cles = new long[total];
+        double[] voracites = new double[total];
+        Partitions.pourChaque(pool, repas.length, p -> {
+            Repas r = repas[p];
+            for (int k = 0; k < r.taille; k++) {
+                cles[r.debut + k] = (long) r.plante[k] << 32 | r.debut + k;
+                voracites[r.debut + k] = r.voracite[k];
+            }
+        });
+        if (pool == null)
+            Arrays.sort(cles);
+        else
+            pool.submit(() -> Arrays.parallelSort(cles)).join();
 
-            // We find how much times does the herbivore eat
-            double voracite[] = herbivore.alimentation();
+        // We cut the sorted meals in parts, without separating the meals of
+        // a plant
+        List<Integer> debuts = new ArrayList<Integer>();
+        for (int debut = 0; debut < total;) {
+            debuts.add(debut);
+            int fin = Math.min(debut + TAILLE_PARTITION_REPAS, total);
+            while (fin < total && cles[fin] >>> 32 == cles[fin - 1] >>> 32)
+                fin++;
+            debut = fin;
+        }
+        debuts.add(total);
 
-            updateAlimentationHerbivore(voracite.length, herbivore,
-                    alimentationHerbivores);
+        double[] energie = new double[total];
+        Partitions.pourChaque(pool, debuts.size() - 1, c -> {
+            for (int k = debuts.get(c); k < debuts.get(c + 1); k++) {
+                int iRepas = (int) cles[k];
+                int iPlante = (int) (cles[k] >>> 32);
+                energie[iRepas] = plantes.mangee(iPlante, voracites[iRepas]);
+            }
+        });
+        return energie;
+    }
 
-            // We take all of the available plants to eat for the herbivore
-            List<Plante> aliments =
-                    alimentationHerbivores.get(herbivore.getNomEspece());
+    /**
+     * Third phase of the herbivores' tick, for a partition: each herbivore
+     * absorbs the energy of its meals, then dies, reproduces or does nothing.
+     * 
+     * @param partition    the index of the partition
+     * @param rnd          the random numbers of the partition
+     * @param repas        the meals of the partition, which also get the new
+     *                     herbivores
+     * @param energieRepas the energy given by each meal
+     */
+    private void absorberRepas(int partition, SplittableRandom rnd,
+            Repas repas, double[] energieRepas) {
+        int k = 0;
+        for (int i = debutAnimaux(partition);
+                i < finAnimaux(partition, herbivores); i++) {
+            final Herbivore herbivore = herbivores.get(i);
 
-            // We determine how much energy did the herbivore eat and deduct it
-            // from the plants
+            // We add the energy of the meals of this herbivore
             double energieAbsorbee = 0;
-            for (int j = 0; j < voracite.length; j++) {
-                if (!aliments.isEmpty()) {
-                    int iPlanteMangee = rnd.nextInt(aliments.size());
-                    energieAbsorbee +=
-                            aliments.get(iPlanteMangee).mangee(voracite[j]);
-                }
-            }
+            for (; k < repas.taille && repas.herbivore[k] == i; k++)
+                energieAbsorbee += energieRepas[repas.debut + k];
 
             int nbrNouveauxHerbivores =
-                    herbivores.get(i).absortionEnergie(energieAbsorbee);
+                    herbivore.absortionEnergie(energieAbsorbee, rnd);
 
-            // If we have a negative number of new herbivores, we remove the
-            // herbivore
+            // If we have a negative number of new herbivores, the herbivore
+            // dies (it stays in its pool of preys until the carnivores' tick)
             if (nbrNouveauxHerbivores < 0)
-                herbivores.remove(i);
+                herbivore.mourir();
 
             // If we have a positive number of new herbivores, we create new
             // herbivores
             else
                 while (nbrNouveauxHerbivores > 0) {
-                    herbivores.add(herbivore.copy());
+                    repas.naissances.add(herbivore.copy());
                     nbrNouveauxHerbivores--;
                 } // end while
-        } // end for on all herbivores
+        } // end for on the herbivores of the partition
+    }
+
+    /**
+     * We simulate what happens for all of the herbivores during a tick. Like
+     * for the plants, every herbivore alive at the beginning of the tick gets
+     * one turn, the dead ones are removed at the end and the new ones are
+     * added after them.
+     * 
+     * The tick is done in three phases so it can be parallel even if the
+     * herbivores eat the same plants: the herbivores choose their meals by
+     * partitions, the meals are eaten plant by plant, then the herbivores
+     * absorb their energy by partitions. Each partition has its own random
+     * numbers, so a seeded tick gives the same results with any number of
+     * threads.
+     * 
+     * @param rnd the random numbers of the phase
+     */
+    private void herbivoreTick(SplittableRandom rnd) {
+        if (cohortes != null) {
+            herbivoreTickCohortes(rnd);
+            return;
+        }
+
+        // Map that associates an herbivore's spieces to the indices of all
+        // the available and alive plants they can eat. Species are compared
+        // by identity, since each one is built only once.
+        Map<Espece, int[]> alimentationHerbivores =
+                new IdentityHashMap<Espece, int[]>();
+        for (Herbivore herbivore : herbivores)
+            alimentationHerbivores.computeIfAbsent(herbivore.getEspece(),
+                    espece -> plantes.indicesDesEspeces(espece.getAliments()));
+
+        int nombre =
+                Partitions.nombre(herbivores.size(), TAILLE_PARTITION_ANIMAUX);
+        SplittableRandom[] flux = new SplittableRandom[nombre];
+        for (int p = 0; p < nombre; p++)
+            flux[p] = rnd.split();
+
+        Repas[] repas = new Repas[nombre];
+        Partitions.pourChaque(pool, nombre, p -> repas[p] =
+                choisirRepas(p, flux[p], alimentationHerbivores));
+
+        double[] energieRepas = mangerRepas(repas);
+
+        Partitions.pourChaque(pool, nombre,
+                p -> absorberRepas(p, flux[p], repas[p], energieRepas));
+
+        // We remove all of the dead herbivores in one pass and add the new
+        // ones, which can be eaten from now on
+        herbivores.removeIf(Organisme::estMort);
+        for (Repas r : repas) {
+            herbivores.addAll(r.naissances);
+            for (Herbivore nouveau : r.naissances)
+                ajouterProie(nouveau);
+        }
     }
 
     /**
-     * Method called exclusively in carnivoreTick(), fill the
-     * alimentationHerbivores map for the given carnivore.
+     * We simulate what happens for all of the herbivores during a tick when
+     * the plants are cohorts. The herbivores eat one after the other, and
+     * each meal is a plant drawn among the cohorts of the species they eat.
      * 
-     * @param nombreRepas           number of time the carnivore eats
-     * @param carnivore             the current carnivore that is trying to eat
-     * @param alimentationCarnivore links the list (Herbivore = 0, Carnivore =
-     *                              1) and the index in the list of each
-     *                              potential prey with itself, and the map
-     *                              contains all of the potential preys.
+     * @param rnd the random numbers of the phase
      */
-    private void fillAlimentationCarnivore(int nombreRepas,
-            Carnivore carnivore, Map<int[], Animal> alimentationCarnivores) {
-        // We test if we need to fill alimentationCarnivores
-        if (nombreRepas != 0) {
-            // We loop on all herbivores to find which should be added to
-            // alimentationCarnivores
-            for (int i = 0; i < herbivores.size(); i++)
-                if (carnivore.getAliments()
-                        .contains(herbivores.get(i).getNomEspece())
-                        && carnivore.getEnergie() > herbivores.get(i)
-                                .getEnergie()) {
-                    int x[] = {0, i};
-                    alimentationCarnivores.put(x, herbivores.get(i));
+    private void herbivoreTickCohortes(SplittableRandom rnd) {
+        List<Herbivore> nouveauxHerbivores = new ArrayList<Herbivore>();
+
+        for (Herbivore herbivore : herbivores) {
+            herbivore.augmenteAge();
+
+            double energieAbsorbee = 0;
+            for (double voracite : herbivore.alimentation(rnd))
+                energieAbsorbee += cohortes.mangee(herbivore.getAliments(),
+                        voracite, rnd);
+
+            int nbrNouveauxHerbivores =
+                    herbivore.absortionEnergie(energieAbsorbee, rnd);
+            if (nbrNouveauxHerbivores < 0)
+                herbivore.mourir();
+            else
+                while (nbrNouveauxHerbivores > 0) {
+                    nouveauxHerbivores.add(herbivore.copy());
+                    nbrNouveauxHerbivores--;
                 }
-            // We loop on all carnivores to find which should be added to
-            // alimentationCarnivores
-            for (int i = 0; i < carnivores.size(); i++)
-                if (carnivore.getAliments()
-                        .contains(carnivores.get(i).getNomEspece())
-                        && carnivore.getEnergie() > carnivores.get(i)
-                                .getEnergie()) {
-                    int x[] = {1, i};
-                    alimentationCarnivores.put(x, carnivores.get(i));
+        }
+
+        herbivores.removeIf(Organisme::estMort);
+        herbivores.addAll(nouveauxHerbivores);
+        for (Herbivore nouveau : nouveauxHerbivores)
+            ajouterProie(nouveau);
+    }
+
+    /**
+     * Tells if a carnivore can eat an animal taken from one of its pools: the
+     * animal must still be alive and have less energy than the carnivore.
+     * 
+     * @param carnivore the carnivore that is trying to eat
+     * @param proie     the animal drawn in one of the carnivore's pools
+     * @return true if the carnivore can eat the animal
+     */
+    private static boolean peutManger(Carnivore carnivore, Animal proie) {
+        return !proie.estMort() && carnivore.getEnergie() > proie.getEnergie();
+    }
+
+    /**
+     * Method called exclusively in nourrirCarnivore(), draws a prey uniformly
+     * among the animals of the given pools and keeps it if the carnivore can
+     * eat it. Since every animal has the same chance to be drawn, the prey
+     * kept is also uniformly chosen among the ones the carnivore can eat.
+     * 
+     * @param carnivore    the carnivore that is trying to eat
+     * @param bassins      the pools of the species the carnivore eats
+     * @param tailleTotale the number of animals in all of the pools
+     * @param rnd          the random numbers of the phase
+     * @return a prey the carnivore can eat, or null if none was drawn after
+     *         TIRAGES_MAX tries
+     */
+    private Animal tirerProie(Carnivore carnivore, List<List<Animal>> bassins,
+            int tailleTotale, SplittableRandom rnd) {
+        if (tailleTotale == 0)
+            return null;
+
+        for (int essai = 0; essai < TIRAGES_MAX; essai++) {
+            // We find in which pool is the animal that was drawn
+            int indice = rnd.nextInt(tailleTotale);
+            for (List<Animal> bassin : bassins) {
+                if (indice < bassin.size()) {
+                    Animal proie = bassin.get(indice);
+                    if (peutManger(carnivore, proie))
+                        return proie;
+                    break;
                 }
+                indice -= bassin.size();
+            }
         }
+        return null;
     }
 
     /**
      * This method is called exclusively in carnivoreTick() and handles the
-     * eating of another animal for a carnivore, returning only the raw energy
-     * output of this action.
+     * eating of other animals for a carnivore, returning only the raw energy
+     * output of this action. Each meal is an animal chosen uniformly among
+     * the alive animals of the species the carnivore eats that have less
+     * energy than it. The eaten animals are marked dead, they are removed
+     * from the lists at the end of carnivoreTick().
      * 
-     * @param nombreRepas            number of time the carnivore is going to
-     *                               eat
-     * @param alimentationCarnivores links the list (Herbivore = 0, Carnivore =
-     *                               1) and the index in the list of each
-     *                               potential prey with itself, and the map
-     *                               contains all of the potential preys.
+     * @param nombreRepas number of time the carnivore is going to eat
+     * @param carnivore   the carnivore that is eating
+     * @param rnd         the random numbers of the phase
      * @return the energy that is ingested by the carnivore after its killing
      *         spree
      */
-    private double nourrirCarnivore(int nombreRepas,
-            Map<int[], Animal> alimentationCarnivores) {
-        // We initialize the total amount of energy and create two list to help
-        // us delete preys that are eaten
+    private double nourrirCarnivore(int nombreRepas, Carnivore carnivore,
+            SplittableRandom rnd) {
+        // We take the pools of all the species the carnivore eats
+        List<List<Animal>> bassins = new ArrayList<List<Animal>>();
+        int tailleTotale = 0;
+        for (String aliment : carnivore.getAliments()) {
+            List<Animal> bassin = proies.get(aliment);
+            if (bassin != null && !bassin.isEmpty()) {
+                bassins.add(bassin);
+                tailleTotale += bassin.size();
+            }
+        }
+
         double energieAbsorbee = 0.0;
-        List<Integer> listDeListeEtIndiceHerbivores = new ArrayList<Integer>();
-        List<Integer> listDeListeEtIndiceCarnivores = new ArrayList<Integer>();
-
-        for (int j = 0; j < nombreRepas; j++)
-            if (!alimentationCarnivores.isEmpty()) {
-                // We find which aliment will be eaten and we save its
-                // corresponding list and index in that list
-                List<int[]> keyList =
-                        new ArrayList<int[]>(alimentationCarnivores.keySet());
-                int[] listeEtIndice = keyList.get(rnd.nextInt(keyList.size()));
-
-                // We update the energy ingested
-                energieAbsorbee +=
-                        alimentationCarnivores.get(listeEtIndice).mangee(1.0);
-
-                // We remove the eaten prey from the available preys and we add
-                // it to the corrresponding list to be deleted later
-                alimentationCarnivores.remove(listeEtIndice);
-
-                if (listeEtIndice[0] == 0)
-                    listDeListeEtIndiceHerbivores.add(listeEtIndice[1]);
-                else if (listeEtIndice[0] == 1)
-                    listDeListeEtIndiceCarnivores.add(listeEtIndice[1]);
+        // All of the preys the carnivore can eat, only listed when drawing
+        // them at random failed too many times
+        List<Animal> eligibles = null;
+
+        for (int j = 0; j < nombreRepas; j++) {
+            Animal proie = null;
+            if (eligibles == null) {
+                proie = tirerProie(carnivore, bassins, tailleTotale, rnd);
+
+                // Few of the animals in the pools can be eaten, so we list
+                // them once and take the next meals from that list
+                if (proie == null) {
+                    eligibles = new ArrayList<Animal>();
+                    for (List<Animal> bassin : bassins)
+                        for (Animal animal : bassin)
+                            if (peutManger(carnivore, animal))
+                                eligibles.add(animal);
+                }
             }
 
-        // We sort our lists of prey to be deleted in reverse order and we
-        // delete them in that order
-        Collections.sort(listDeListeEtIndiceHerbivores,
-                Collections.reverseOrder());
-        Collections.sort(listDeListeEtIndiceCarnivores,
-                Collections.reverseOrder());
-        for (int listeEtIndiceHerbivores : listDeListeEtIndiceHerbivores)
-            herbivores.remove(listeEtIndiceHerbivores);
-        for (int listeEtIndiceCarnivores : listDeListeEtIndiceCarnivores)
-            carnivores.remove(listeEtIndiceCarnivores);
+            if (eligibles != null) {
+                if (eligibles.isEmpty())
+                    break;
+
+                // We take the prey out of the list by replacing it with the
+                // last one, the order of the list does not matter
+                int iProie = rnd.nextInt(eligibles.size());
+                int iDernier = eligibles.size() - 1;
+                proie = eligibles.get(iProie);
+                eligibles.set(iProie, eligibles.get(iDernier));
+                eligibles.remove(iDernier);
+            }
+
+            // We update the energy ingested and the prey is dead
+            if (temoin != null)
+                temoin.repas(carnivore, proie);
+            energieAbsorbee += proie.mangee(1.0);
+            proie.mourir();
+        }
 
         return energieAbsorbee;
     }
 
     /**
-     * We simulate what happens for all of the carnivores during a tick.
+     * We simulate what happens for all of the carnivores during a tick. The
+     * animals that die or are eaten are only marked dead during the loop, so
+     * the carnivores list does not change while we go through it, and they
+     * are all removed at the end. The new carnivores are added after that,
+     * so they cannot hunt or be hunted before the next tick.
+     * 
+     * @param rnd the random numbers of the phase
      */
-    private void carnivoreTick() {
-        for (int i = 0; i < carnivores.size(); i++) {
-            // Copy of the current carnivore that is used to call getters, did
-            // not want to spend too much time on how Java will handle changes
-            // made to this carnivore and will they be reflected on the
-            // carnivore in carnivores so we do not modify this carnivore.
-            final Carnivore carnivore = carnivores.get(i);
-
-            // Map that associates all of the available and alive animals that
-            // can be eaten by a given carnivore to its corresponding list
-            // (herbivores = 0, carnivores = 1) and its indice in that list
-            Map<int[], Animal> alimentationCarnivores =
-                    new HashMap<int[], Animal>();
-
-            carnivores.get(i).augmenteAge();
+    private void carnivoreTick(SplittableRandom rnd) {
+        // The carnivores born during this tick
+        List<Carnivore> nouveauxCarnivores = new ArrayList<Carnivore>();
 
-            // We find how much times does the carnivore eat
-            int nombreRepas = carnivore.rechercheRepas();
+        for (Carnivore carnivore : carnivores) {
+            // A carnivore that was eaten earlier in this tick does nothing
+            if (carnivore.estMort())
+                continue;
 
-            fillAlimentationCarnivore(nombreRepas, carnivore,
-                    alimentationCarnivores);
+            carnivore.augmenteAge();
 
-            double energieAbsorbee =
-                    nourrirCarnivore(nombreRepas, alimentationCarnivores);
+            // We find how much times does the carnivore eat
+            int nombreRepas = carnivore.rechercheRepas(rnd);
+
+            double energieAbsorbee = nombreRepas == 0 ? 0.0
+                    : nourrirCarnivore(nombreRepas, carnivore, rnd);
 
             int nbrNouveauxCarnivores =
-                    carnivores.get(i).absortionEnergie(energieAbsorbee);
+                    carnivore.absortionEnergie(energieAbsorbee, rnd);
 
-            // If we have a negative number of new carnivores, we remove the
-            // carnivore
+            // If we have a negative number of new carnivores, the carnivore
+            // dies
             if (nbrNouveauxCarnivores < 0)
-                carnivores.remove(i);
+                carnivore.mourir();
 
             // If we have a positive number of new carnivores, we create new
             // carnivores
             else
                 while (nbrNouveauxCarnivores > 0) {
-                    carnivores.add(carnivore.copy());
+                    nouveauxCarnivores.add(carnivore.copy());
                     nbrNouveauxCarnivores--;
                 } // end while
         } // end for on all carnviores
+
+        retirerMortsCarnivoreTick(nouveauxCarnivores);
+    }
+
+    /**
+     * Ends a carnivores' tick: we remove all of the dead animals at once,
+     * from the lists and from the pools of preys, and we add the new
+     * carnivores.
+     * 
+     * @param nouveauxCarnivores the carnivores born during the tick
+     */
+    private void retirerMortsCarnivoreTick(
+            List<Carnivore> nouveauxCarnivores) {
+        herbivores.removeIf(Organisme::estMort);
+        carnivores.removeIf(Organisme::estMort);
+        for (List<Animal> bassin : proies.values())
+            bassin.removeIf(Organisme::estMort);
+        carnivores.addAll(nouveauxCarnivores);
+        for (Carnivore nouveau : nouveauxCarnivores)
+            ajouterProie(nouveau);
+    }
+
+    /**
+     * All of the animals that can be eaten during a parallel predation, in
+     * one array where the animals of a species take consecutive places, by
+     * increasing energy, with the claims made by the meals on each place.
+     * Since the energies do not change during the hunt, the preys a
+     * carnivore can eat in a species are the first free ones.
+     * 
+     * @author Nicolas Levasseur
+     */
+    private static final class TableProies {
+        // The alive animals of all of the pools, species after species
+        private final Animal[] animaux;
+        // The energy of each animal at the beginning of the hunt
+        private final double[] energies;
+        // The index of each species in the table
+        private final Map<String, Integer> indices =
+                new HashMap<String, Integer>();
+        // The first place of each species, and the end of the table
+        private final int[] debuts;
+        // The smallest meal that claimed each place, plus one, 0 if no meal
+        // claimed it. Only compareAndSet changes it during a round.
+        private final AtomicIntegerArray reservations;
+        // Tells if each place was won by a meal in an earlier round, it only
+        // changes between the proposals of two rounds
+        private final boolean[] prises;
+        // The places that are not won yet, species after species, in the
+        // same order, and the first of each species. Built for each round.
+        private final int[] libres;
+        private final int[] debutsLibres;
+
+        private TableProies(Map<String, List<Animal>> proies) {
+            List<Animal> tous = new ArrayList<Animal>();
+            debuts = new int[proies.size() + 1];
+            for (var entry : proies.entrySet()) {
+                List<Animal> vivants = new ArrayList<Animal>();
+                for (Animal animal : entry.getValue())
+                    if (!animal.estMort())
+                        vivants.add(animal);
+                // The sort is stable, so the order does not depend on more
+                // than the pool
+                vivants.sort(Comparator.comparingDouble(Animal::getEnergie));
+
+                indices.put(entry.getKey(), indices.size());
+                tous.addAll(vivants);
+                debuts[indices.size()] = tous.size();
+            }
+
+            animaux = tous.toArray(new Animal[0]);
+            energies = new double[animaux.length];
+            for (int place = 0; place < animaux.length; place++)
+                energies[place] = animaux[place].getEnergie();
+            reservations = new AtomicIntegerArray(animaux.length);
+            prises = new boolean[animaux.length];
+            libres = new int[animaux.length];
+            debutsLibres = new int[debuts.length];
+        }
+
+        /**
+         * Gives the species a carnivore eats.
+         * 
+         * @param espece the species of the carnivore
+         * @return the indices of the species eaten that are in the table
+         */
+        private int[] especes(Espece espece) {
+            return espece.getAliments().stream().map(indices::get)
+                    .filter(indice -> indice != null)
+                    .mapToInt(Integer::intValue).toArray();
+        }
+
+        // Lists the places that are not won yet, before a round
+        private void nouvelleRonde() {
+            int nombre = 0;
+            for (int e = 0; e + 1 < debuts.length; e++) {
+                debutsLibres[e] = nombre;
+                for (int place = debuts[e]; place < debuts[e + 1]; place++)
+                    if (!prises[place])
+                        libres[nombre++] = place;
+            }
+            debutsLibres[debuts.length - 1] = nombre;
+        }
+
+        // Number of free preys of a species with less energy than the
+        // given one, found by a binary search since they come first
+        private int nombreMangeables(int e, double energie) {
+            int debut = debutsLibres[e];
+            int fin = debutsLibres[e + 1];
+            while (debut < fin) {
+                int milieu = (debut + fin) >>> 1;
+                if (energies[libres[milieu]] < energie)
+                    debut = milieu + 1;
+                else
+                    fin = milieu;
+            }
+            return debut - debutsLibres[e];
+        }
+
+        /**
+         * Chooses a prey for a meal of a carnivore, uniformly among the
+         * animals of the species it eats that have less energy than it and
+         * were not won by another meal yet.
+         * 
+         * @param carnivore the carnivore that is trying to eat
+         * @param especes   the species the carnivore eats
+         * @param rnd       the random numbers of the partition
+         * @return the place of the prey, or -1 if there is none left
+         */
+        private int choisir(Carnivore carnivore, int[] especes,
+                SplittableRandom rnd) {
+            double energie = carnivore.getEnergie();
+            int total = 0;
+            for (int e : especes)
+                total += nombreMangeables(e, energie);
+            if (total == 0)
+                return -1;
+
+            int indice = rnd.nextInt(total);
+            for (int e : especes) {
+                int nombre = nombreMangeables(e, energie);
+                if (indice < nombre)
+                    return libres[debutsLibres[e] + indice];
+                indice -= nombre;
+            }
+            return -1;
+        }
+
+        /**
+         * Claims a place for a meal without locking: the claim is kept if no
+         * smaller meal claimed the place, so the meal that wins a place does
+         * not depend on the order in which the threads claim it.
+         * 
+         * @param place the place of the prey
+         * @param repas the index of the meal
+         */
+        private void reserver(int place, int repas) {
+            int actuelle;
+            do {
+                actuelle = reservations.get(place);
+                if (actuelle != 0 && actuelle <= repas + 1)
+                    return;
+            } while (!reservations.compareAndSet(place, actuelle, repas + 1));
+        }
+
+        // Tells if a meal won the place it claimed, once the round is over
+        private boolean gagnee(int place, int repas) {
+            return reservations.get(place) == repas + 1;
+        }
+    }
+
+    /**
+     * We simulate the carnivores' tick with all of the carnivores hunting at
+     * the same time, so the hunt can be parallel. The rules differ from
+     * carnivoreTick() in two ways: a carnivore compares its energy to its
+     * preys' with their energies at the beginning of the tick, and a
+     * carnivore that gets eaten during the tick still hunts, but does not
+     * absorb what it ate nor reproduce.
+     * 
+     * The carnivores are cut in partitions, each one with its own random
+     * numbers. Each meal is numbered, in the order of the carnivores, and
+     * the hunt is done in rounds. In a round, every meal without a prey
+     * chooses one uniformly among those that were not won yet and claims it
+     * in a table of claims.
+     * At the end of the round, the smallest meal that claimed a prey wins
+     * it, like if the carnivores had hunted in order, and the other ones
+     * try again in the next round. Once no meal is left, the preys are
+     * eaten and the carnivores absorb their energy. So an animal is eaten
+     * at most once, and a seeded tick gives the same results with any
+     * number of threads.
+     * 
+     * @param rnd the random numbers of the phase
+     */
+    private void carnivoreTickParallele(SplittableRandom rnd) {
+        int nombreCarnivores = carnivores.size();
+        int nombre =
+                Partitions.nombre(nombreCarnivores, TAILLE_PARTITION_ANIMAUX);
+        SplittableRandom[] flux = new SplittableRandom[nombre];
+        for (int p = 0; p < nombre; p++)
+            flux[p] = rnd.split();
+
+        TableProies table = new TableProies(proies);
+        // The species each carnivore species can eat, compared by identity
+        // since each species is built only once
+        Map<Espece, int[]> especes = new IdentityHashMap<Espece, int[]>();
+        for (Carnivore carnivore : carnivores)
+            especes.computeIfAbsent(carnivore.getEspece(), table::especes);
+
+        // Every carnivore gets older and finds how much times it eats
+        int[] nombreRepas = new int[nombreCarnivores];
+        Partitions.pourChaque(pool, nombre, p -> {
+            for (int i = debutAnimaux(p); i < finAnimaux(p, carnivores); i++) {
+                carnivores.get(i).augmenteAge();
+                nombreRepas[i] = carnivores.get(i).rechercheRepas(flux[p]);
+            }
+        });
+
+        // The meals of a carnivore are numbered after those of the
+        // carnivores before it. Each meal has the place of its prey, or
+        // A_TIRER or ABANDONNE.
+        int[] debutRepas = new int[nombreCarnivores + 1];
+        for (int i = 0; i < nombreCarnivores; i++)
+            debutRepas[i + 1] = Math.addExact(debutRepas[i], nombreRepas[i]);
+        int[] cible = new int[debutRepas[nombreCarnivores]];
+        Arrays.fill(cible, A_TIRER);
+        boolean[] gagne = new boolean[cible.length];
+
+        // The rounds stop when every meal has won a prey or was abandoned,
+        // and the smallest meal that claims a prey always wins it
+        int[] restants = new int[nombre];
+        boolean encore = cible.length > 0;
+        int rondes = 0;
+        while (encore) {
+            rondes++;
+            table.nouvelleRonde();
+            Partitions.pourChaque(pool, nombre, p -> {
+                for (int i = debutAnimaux(p); i < finAnimaux(p, carnivores);
+                        i++) {
+                    Carnivore carnivore = carnivores.get(i);
+                    for (int g = debutRepas[i]; g < debutRepas[i + 1]; g++) {
+                        if (cible[g] != A_TIRER)
+                            continue;
+
+                        int place = table.choisir(carnivore,
+                                especes.get(carnivore.getEspece()), flux[p]);
+                        // Without a prey for this meal, the next meals of
+                        // the carnivore will not find one either
+                        if (place < 0) {
+                            for (int h = g; h < debutRepas[i + 1]; h++)
+                                if (cible[h] == A_TIRER)
+                                    cible[h] = ABANDONNE;
+                            break;
+                        }
+                        cible[g] = place;
+                        table.reserver(place, g);
+                    }
+                }
+            });
+
+            Partitions.pourChaque(pool, nombre, p -> {
+                restants[p] = 0;
+                for (int g = debutRepas[debutAnimaux(p)];
+                        g < debutRepas[finAnimaux(p, carnivores)]; g++) {
+                    if (cible[g] < 0 || gagne[g])
+                        continue;
+
+                    if (table.gagnee(cible[g], g)) {
+                        gagne[g] = true;
+                        table.prises[cible[g]] = true;
+                    } else {
+                        cible[g] = A_TIRER;
+                        restants[p]++;
+                    }
+                }
+            });
+
+            encore = Arrays.stream(restants).anyMatch(r -> r > 0);
+        }
+        if (temoin != null)
+            temoin.rondes(rondes);
+
+        // Every prey is won by one meal, so its carnivore eats it
+        double[] energieAbsorbee = new double[nombreCarnivores];
+        Partitions.pourChaque(pool, nombre, p -> {
+            for (int i = debutAnimaux(p); i < finAnimaux(p, carnivores); i++)
+                for (int g = debutRepas[i]; g < debutRepas[i + 1]; g++)
+                    if (gagne[g]) {
+                        Animal proie = table.animaux[cible[g]];
+                        if (temoin != null)
+                            temoin.repas(carnivores.get(i), proie);
+                        energieAbsorbee[i] += proie.mangee(1.0);
+                        proie.mourir();
+                    }
+        });
+
+        // The carnivores that were not eaten absorb the energy of their
+        // meals, and each partition keeps its new carnivores
+        List<List<Carnivore>> naissances = new ArrayList<List<Carnivore>>();
+        for (int p = 0; p < nombre; p++)
+            naissances.add(new ArrayList<Carnivore>());
+        Partitions.pourChaque(pool, nombre, p -> {
+            for (int i = debutAnimaux(p); i < finAnimaux(p, carnivores); i++) {
+                Carnivore carnivore = carnivores.get(i);
+                if (carnivore.estMort())
+                    continue;
+
+                int nbrNouveauxCarnivores = carnivore
+                        .absortionEnergie(energieAbsorbee[i], flux[p]);
+                if (nbrNouveauxCarnivores < 0)
+                    carnivore.mourir();
+                else
+                    while (nbrNouveauxCarnivores > 0) {
+                        naissances.get(p).add(carnivore.copy());
+                        nbrNouveauxCarnivores--;
+                    }
+            }
+        });
+
+        List<Carnivore> nouveauxCarnivores = new ArrayList<Carnivore>();
+        for (List<Carnivore> nouveaux : naissances)
+            nouveauxCarnivores.addAll(nouveaux);
+        retirerMortsCarnivoreTick(nouveauxCarnivores);
     }
 
     /**
      * Make the simulation progress by one tick. Calls other, more specific
-     * methods to deal with each type of organism.
+     * methods to deal with each type of organism, each with its own stream
+     * of random numbers.
      */
     public void tick() {
-        plantTick();
-        herbivoreTick();
-        carnivoreTick();
+        plantTick(generateur.split());
+        herbivoreTick(generateur.split());
+        if (predationParallele)
+            carnivoreTickParallele(generateur.split());
+        else
+            carnivoreTick(generateur.split());
     }
 
     /**
@@ -334,13 +991,16 @@ public final class Lac {
      * @param out Used to print the report to the user
      */
     public void imprimeRapport(PrintStream out) {
-        // We know that those usually aren't safe casts to make, but since
-        // Plante, Herbivore and Carnivore are all Organisme, this cast
-        // shouldn't cause problems, we should just be careful about changing
-        // this method or the heritage mechanism for Plante, Herbivore or
-        // Carnivore
-        imprimeRapportOrganisme(out, (List<Organisme>) (List<?>) plantes,
+        // The plants are not objects anymore, their population or their
+        // cohorts give the same statistics as the animals' lists
+        imprimeRapportEspeces(out, cohortes != null
+                ? cohortes.resumeParEspece() : plantes.resumeParEspece(),
                 "plantes");
+
+        // We know that those usually aren't safe casts to make, but since
+        // Herbivore and Carnivore are both Organisme, this cast shouldn't
+        // cause problems, we should just be careful about changing this
+        // method or the heritage mechanism for Herbivore or Carnivore
         imprimeRapportOrganisme(out, (List<Organisme>) (List<?>) herbivores,
                 "herbivores");
         imprimeRapportOrganisme(out, (List<Organisme>) (List<?>) carnivores,
@@ -358,6 +1018,20 @@ public final class Lac {
         var especes =
                 organismes.stream().collect(groupingBy(Organisme::getNomEspece,
                         summarizingDouble(Organisme::getEnergie)));
+        imprimeRapportEspeces(out, especes, typeOrganisme);
+    }
+
+    /**
+     * Prints the report of a type of organism from the number of individuals
+     * and the total energy of each species.
+     * 
+     * @param out           Used to print the report to the user
+     * @param especes       The statistics of the energy by species name
+     * @param typeOrganisme The type of organism, used in the report
+     */
+    private void imprimeRapportEspeces(PrintStream out,
+            Map<String, DoubleSummaryStatistics> especes,
+            String typeOrganisme) {
         out.println("Il reste " + especes.size() + " espèces de "
                 + typeOrganisme + ".");
         for (var entry : especes.entrySet()) {
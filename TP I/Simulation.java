@@ -6,12 +6,21 @@ import conditionsinitialesinvalides.ConditionsInitialesInvalides;
 
 /**
  * Le point d'entré du programme. Il reconnait l'option --nombre-cycles qui
- * spécifie la durée de la simulation et lit les conditions initiales sur
- * l'entrée standard du processus.
+ * spécifie la durée de la simulation et l'option --seed qui fixe la graine des
+ * nombres aléatoires, pour qu'une simulation puisse être reproduite. L'option
+ * --fils donne le nombre de fils d'exécution des phases parallèles, et
+ * l'option --predation-parallele fait chasser tous les carnivores en même
+ * temps. L'option --cohortes fait simuler les plantes par cohortes, avec le
+ * pas d'énergie donné. Il lit les conditions initiales sur l'entrée standard
+ * du processus.
  */
 public final class Simulation {
     public static void main(String[] args) {
         int nombreCycles = 50;
+        Long graine = null;
+        int fils = 1;
+        boolean predationParallele = false;
+        double pasCohortes = 0;
 
         Iterator<String> argsIterator = Arrays.stream(args).iterator();
         while (argsIterator.hasNext()) {
@@ -19,6 +28,11 @@ public final class Simulation {
             switch (next) {
                 case "--nombre-cycles" -> nombreCycles =
                         Integer.parseInt(argsIterator.next());
+                case "--seed" -> graine = Long.parseLong(argsIterator.next());
+                case "--fils" -> fils = Integer.parseInt(argsIterator.next());
+                case "--predation-parallele" -> predationParallele = true;
+                case "--cohortes" -> pasCohortes =
+                        Double.parseDouble(argsIterator.next());
                 default -> {
                     System.out.println(
                             "erreur: option inconnue \"" + next + "\"");
@@ -39,6 +53,7 @@ public final class Simulation {
         }
 
         var conditionsInitiales = new ConditionsInitiales(reader);
+        conditionsInitiales.setPasCohortes(pasCohortes);
         Lac lac;
         try {
             lac = conditionsInitiales.nextLac();
@@ -49,6 +64,11 @@ public final class Simulation {
             return;
         }
 
+        if (graine != null)
+            lac.setGraine(graine);
+        lac.setFils(fils);
+        lac.setPredationParallele(predationParallele);
+
         for (int i = 0; i < nombreCycles; i += 1) {
             lac.tick();
         }
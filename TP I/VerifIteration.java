@@ -0,0 +1,287 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import conditionsinitialesinvalides.ConditionsInitialesInvalides;
+import organisme.*;
+
+/**
+ * Ce programme vérifie l'ordre dans lequel un cycle du lac donne leur tour
+ * aux organismes. Le lac a une graine fixe, et avant chaque cycle on note
+ * l'âge de chaque organisme. Après le cycle, on vérifie que:
+ *
+ * - chaque plante, herbivore ou carnivore vivant au début du cycle a eu
+ * exactement un tour (son âge a augmenté de un) et les plantes gardent leur
+ * ordre;
+ *
+ * - les nouveau-nés n'ont pas eu de tour (leur âge est 0 et un animal a
+ * l'énergie d'un enfant), un carnivore né pendant le cycle n'a ni chassé ni
+ * été mangé;
+ *
+ * - un carnivore mangé avant son tour ne l'a pas eu, un carnivore mort ne
+ * chasse plus et aucune proie morte n'est mangée;
+ *
+ * - il ne reste aucun organisme mort dans les listes.
+ *
+ * Le même lac est aussi simulé avec plusieurs fils d'exécution, et les
+ * rapports des deux lacs doivent être les mêmes à chaque cycle.
+ *
+ * Options: --nombre-cycles K (10 par défaut), --graine G (7 par défaut) et
+ * --fils F (4 par défaut, pour le second lac). Le programme termine avec le
+ * code 1 si une vérification échoue.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class VerifIteration {
+
+    // Nombre d'erreurs trouvées, on n'affiche que les premières
+    private static int erreurs = 0;
+
+    private static void erreur(int cycle, String message) {
+        if (++erreurs <= 10)
+            System.out.println("erreur au cycle " + cycle + ": " + message);
+    }
+
+    /**
+     * Note les repas des carnivores d'un cycle, dans l'ordre. La chasse est
+     * séquentielle, donc un seul fil l'appelle.
+     */
+    private static final class Temoin implements Lac.TemoinPredation {
+        private final List<Carnivore> mangeurs = new ArrayList<Carnivore>();
+        private final List<Animal> proies = new ArrayList<Animal>();
+        // Un carnivore mort ou une proie morte au moment d'un repas
+        private int repasDeMorts;
+
+        @Override
+        public void repas(Carnivore carnivore, Animal proie) {
+            if (carnivore.estMort() || proie.estMort())
+                repasDeMorts++;
+            mangeurs.add(carnivore);
+            proies.add(proie);
+        }
+
+        @Override
+        public void rondes(int nombre) {
+        }
+    }
+
+    /**
+     * Un lac et ses populations, que le lac modifie sur place.
+     */
+    private record Simulation(Lac lac, PopulationPlantes plantes,
+            List<Herbivore> herbivores, List<Carnivore> carnivores,
+            Temoin temoin) {
+        String rapport() {
+            var sortie = new ByteArrayOutputStream();
+            lac.imprimeRapport(new PrintStream(sortie));
+            return sortie.toString();
+        }
+    }
+
+    private static Simulation creerLac(long graine, int fils)
+            throws ConditionsInitialesInvalides {
+        var plantes = new PopulationPlantes();
+        var usine = new UsinePlante();
+        usine.setNomEspece("algue");
+        usine.setBesoinEnergie(1.0);
+        usine.setEfficaciteEnergie(0.5);
+        usine.setResilience(0.5);
+        usine.setFertilite(0.2);
+        usine.setAgeFertilite(1);
+        usine.setEnergieEnfant(1.0);
+        plantes.ajouter(usine.creerEspece(), 20000);
+
+        List<Herbivore> herbivores = new ArrayList<>();
+        var usineHerbivore = new UsineHerbivore();
+        usineHerbivore.setNomEspece("perche");
+        usineHerbivore.setBesoinEnergie(1.0);
+        usineHerbivore.setEfficaciteEnergie(0.5);
+        usineHerbivore.setResilience(0.5);
+        usineHerbivore.setFertilite(0.2);
+        usineHerbivore.setAgeFertilite(1);
+        usineHerbivore.setEnergieEnfant(2.0);
+        usineHerbivore.setDebrouillardise(0.8);
+        usineHerbivore.setVoraciteMax(0.5);
+        usineHerbivore.setVoraciteMin(0.1);
+        usineHerbivore.addAliment("algue");
+        for (int i = 0; i < 2000; i++)
+            herbivores.add(usineHerbivore.creerOrganisme());
+
+        List<Carnivore> carnivores = new ArrayList<>();
+        var usineCarnivore = new UsineCarnivore();
+        usineCarnivore.setNomEspece("brochet");
+        usineCarnivore.setBesoinEnergie(1.5);
+        usineCarnivore.setEfficaciteEnergie(0.5);
+        usineCarnivore.setResilience(0.6);
+        usineCarnivore.setFertilite(0.2);
+        usineCarnivore.setAgeFertilite(1);
+        usineCarnivore.setEnergieEnfant(3.0);
+        usineCarnivore.setDebrouillardise(0.7);
+        usineCarnivore.addAliment("perche");
+        usineCarnivore.addAliment("brochet");
+        for (int i = 0; i < 50; i++)
+            carnivores.add(usineCarnivore.creerOrganisme());
+
+        var lac = new Lac(30000, plantes, herbivores, carnivores);
+        lac.setGraine(graine);
+        lac.setFils(fils);
+        var temoin = new Temoin();
+        lac.setTemoin(temoin);
+        return new Simulation(lac, plantes, herbivores, carnivores, temoin);
+    }
+
+    /**
+     * Vérifie qu'un animal de la liste a eu un tour s'il était là au début
+     * du cycle, et aucun sinon.
+     */
+    private static void verifierAnimaux(int cycle, List<? extends Animal> liste,
+            Map<Animal, Integer> agesAvant) {
+        for (Animal animal : liste) {
+            Integer age = agesAvant.get(animal);
+            if (animal.estMort())
+                erreur(cycle, "un " + animal.getNomEspece()
+                        + " mort est resté dans la liste");
+            else if (age == null && (animal.getAge() != 0
+                    || animal.getEnergie() != animal.getEnergieEnfant()))
+                erreur(cycle, "un " + animal.getNomEspece()
+                        + " nouveau-né a eu un tour");
+            else if (age != null && animal.getAge() != age + 1)
+                erreur(cycle, "un " + animal.getNomEspece() + " a eu "
+                        + (animal.getAge() - age) + " tours");
+        }
+    }
+
+    /**
+     * Simule un cycle et vérifie que chaque organisme a eu le bon nombre de
+     * tours.
+     */
+    private static void verifierCycle(int cycle, Simulation s) {
+        // L'âge de chaque organisme au début du cycle
+        var plantes = s.plantes();
+        int[] agesPlantes = new int[plantes.taille()];
+        for (int i = 0; i < agesPlantes.length; i++)
+            agesPlantes[i] = plantes.getAge(i);
+        Map<Animal, Integer> agesAvant = new IdentityHashMap<>();
+        for (Animal animal : s.herbivores())
+            agesAvant.put(animal, animal.getAge());
+        Map<Carnivore, Integer> rangs = new IdentityHashMap<>();
+        for (Carnivore carnivore : s.carnivores()) {
+            agesAvant.put(carnivore, carnivore.getAge());
+            rangs.put(carnivore, rangs.size());
+        }
+        s.temoin().mangeurs.clear();
+        s.temoin().proies.clear();
+        s.temoin().repasDeMorts = 0;
+
+        s.lac().tick();
+
+        // Les plantes qui survivent sont au début, dans le même ordre et
+        // plus vieilles de un, puis viennent les nouvelles. Les herbivores
+        // peuvent déjà avoir mangé une nouvelle plante, donc seul son âge
+        // montre qu'elle n'a pas eu de tour.
+        int survivantes = 0;
+        int i = 0;
+        for (; i < plantes.taille() && plantes.getAge(i) > 0; i++) {
+            while (survivantes < agesPlantes.length
+                    && agesPlantes[survivantes] + 1 != plantes.getAge(i))
+                survivantes++;
+            if (survivantes++ == agesPlantes.length) {
+                erreur(cycle, "la plante " + i + " n'a pas eu un seul tour");
+                break;
+            }
+        }
+        for (; i < plantes.taille(); i++)
+            if (plantes.getAge(i) != 0) {
+                erreur(cycle, "la plante nouvelle " + i + " a eu un tour");
+                break;
+            }
+
+        verifierAnimaux(cycle, s.herbivores(), agesAvant);
+        verifierAnimaux(cycle, s.carnivores(), agesAvant);
+
+        // Un carnivore mangé par un carnivore qui passe avant lui n'a pas eu
+        // son tour, et il l'a eu si celui qui le mange passe après lui
+        var temoin = s.temoin();
+        if (temoin.repasDeMorts > 0)
+            erreur(cycle, temoin.repasDeMorts + " repas par ou de morts");
+        for (int r = 0; r < temoin.proies.size(); r++) {
+            Integer rangMangeur = rangs.get(temoin.mangeurs.get(r));
+            if (rangMangeur == null) {
+                erreur(cycle, "un carnivore nouveau-né a chassé");
+                continue;
+            }
+            if (!(temoin.proies.get(r) instanceof Carnivore proie))
+                continue;
+
+            Integer rangProie = rangs.get(proie);
+            if (rangProie == null)
+                erreur(cycle, "un carnivore nouveau-né a été mangé");
+            else if (proie.getAge() != agesAvant.get(proie)
+                    + (rangMangeur < rangProie ? 0 : 1))
+                erreur(cycle, "un carnivore mangé a eu "
+                        + (proie.getAge() - agesAvant.get(proie))
+                        + " tours");
+        }
+    }
+
+    public static void main(String[] args) {
+        int nombreCycles = 10;
+        long graine = 7;
+        int fils = 4;
+
+        Iterator<String> argsIterator = Arrays.stream(args).iterator();
+        while (argsIterator.hasNext()) {
+            var next = argsIterator.next();
+            switch (next) {
+                case "--nombre-cycles" -> nombreCycles =
+                        Integer.parseInt(argsIterator.next());
+                case "--graine" -> graine =
+                        Long.parseLong(argsIterator.next());
+                case "--fils" -> fils = Integer.parseInt(argsIterator.next());
+                default -> {
+                    System.out.println(
+                            "erreur: option inconnue \"" + next + "\"");
+                    return;
+                }
+            }
+        }
+
+        Simulation sequentielle;
+        Simulation parallele;
+        try {
+            sequentielle = creerLac(graine, 1);
+            parallele = creerLac(graine, fils);
+        } catch (ConditionsInitialesInvalides e) {
+            System.out.println("erreur: je ne peux pas créer les organismes");
+            e.printStackTrace();
+            return;
+        }
+
+        for (int cycle = 0; cycle < nombreCycles; cycle++) {
+            verifierCycle(cycle, sequentielle);
+            verifierCycle(cycle, parallele);
+            if (!sequentielle.rapport().equals(parallele.rapport()))
+                erreur(cycle, "le rapport avec " + fils
+                        + " fils n'est pas celui avec 1 fil");
+
+            System.out.printf("cycle %d: %d plantes, %d herbivores,"
+                    + " %d carnivores, %d repas de carnivores%n", cycle,
+                    sequentielle.plantes().taille(),
+                    sequentielle.herbivores().size(),
+                    sequentielle.carnivores().size(),
+                    sequentielle.temoin().proies.size());
+        }
+        parallele.lac().setFils(1);
+
+        if (erreurs > 0) {
+            System.out.println(erreurs + " erreur(s)");
+            System.exit(1);
+        }
+        System.out.println("chaque organisme a eu le bon nombre de tours");
+    }
+}
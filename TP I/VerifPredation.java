@@ -0,0 +1,225 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import conditionsinitialesinvalides.ConditionsInitialesInvalides;
+import organisme.*;
+
+/**
+ * Ce programme vérifie la chasse en parallèle sur un lac dont la graine est
+ * fixe. Pendant chaque cycle, il regarde tous les repas des carnivores et
+ * s'assure qu'aucune proie n'est mangée deux fois, qu'aucune proie n'était
+ * déjà morte et qu'aucun carnivore ne se mange lui-même. Le même lac est
+ * simulé avec chaque nombre de fils demandé, et les rapports doivent être
+ * identiques.
+ *
+ * Pour chaque nombre de fils, on affiche le temps moyen d'un cycle et le
+ * nombre moyen de rondes de réservations des proies, à comparer avec la
+ * chasse séquentielle, qui est aussi vérifiée. Le lac est celui de BancLac:
+ * des algues, des perches qui les mangent et des brochets qui mangent les
+ * perches et les autres brochets, donc beaucoup de brochets se disputent les
+ * mêmes proies.
+ *
+ * Options: --plantes N (100 000 par défaut), --herbivores N (20 000 par
+ * défaut), --carnivores N (5 000 par défaut), --nombre-cycles K (5 par
+ * défaut) et --fils F,G,... (les nombres de fils à essayer, 1,2,4 par
+ * défaut). Le programme termine avec le code 1 si une vérification échoue.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class VerifPredation {
+
+    /**
+     * Note les repas d'un cycle, depuis n'importe quel fil d'exécution.
+     */
+    private static final class Temoin implements Lac.TemoinPredation {
+        // Le carnivore qui a mangé chaque proie pendant le cycle
+        private final Map<Animal, Carnivore> mangeurs =
+                new ConcurrentHashMap<Animal, Carnivore>();
+        private final AtomicInteger erreurs = new AtomicInteger();
+        private final AtomicLong repas = new AtomicLong();
+        private long rondes;
+
+        @Override
+        public void repas(Carnivore carnivore, Animal proie) {
+            repas.incrementAndGet();
+            if (proie == carnivore)
+                erreur("un " + carnivore.getNomEspece() + " se mange");
+            if (proie.estMort())
+                erreur("un " + proie.getNomEspece() + " mort est mangé");
+            if (mangeurs.putIfAbsent(proie, carnivore) != null)
+                erreur("un " + proie.getNomEspece()
+                        + " est mangé deux fois");
+        }
+
+        @Override
+        public void rondes(int nombre) {
+            rondes += nombre;
+        }
+
+        private void erreur(String message) {
+            // On n'affiche que les premières erreurs
+            if (erreurs.incrementAndGet() <= 10)
+                System.out.println("erreur: " + message);
+        }
+    }
+
+    public static void main(String[] args) {
+        int nombrePlantes = 100_000;
+        int nombreHerbivores = 20_000;
+        int nombreCarnivores = 5_000;
+        int nombreCycles = 5;
+        int[] fils = { 1, 2, 4 };
+
+        Iterator<String> argsIterator = Arrays.stream(args).iterator();
+        while (argsIterator.hasNext()) {
+            var next = argsIterator.next();
+            switch (next) {
+                case "--plantes" -> nombrePlantes =
+                        Integer.parseInt(argsIterator.next());
+                case "--herbivores" -> nombreHerbivores =
+                        Integer.parseInt(argsIterator.next());
+                case "--carnivores" -> nombreCarnivores =
+                        Integer.parseInt(argsIterator.next());
+                case "--nombre-cycles" -> nombreCycles =
+                        Integer.parseInt(argsIterator.next());
+                case "--fils" -> fils = Arrays.stream(
+                        argsIterator.next().split(","))
+                        .mapToInt(Integer::parseInt).toArray();
+                default -> {
+                    System.out.println(
+                            "erreur: option inconnue \"" + next + "\"");
+                    return;
+                }
+            }
+        }
+
+        int erreurs = 0;
+        String rapportSequentiel = null;
+        String rapportParallele = null;
+        try {
+            // La chasse séquentielle, pour comparer les temps
+            rapportSequentiel = simuler(nombrePlantes, nombreHerbivores,
+                    nombreCarnivores, nombreCycles, 1, false);
+            if (rapportSequentiel == null)
+                erreurs++;
+
+            for (int f : fils) {
+                String rapport = simuler(nombrePlantes, nombreHerbivores,
+                        nombreCarnivores, nombreCycles, f, true);
+                if (rapport == null)
+                    erreurs++;
+                else if (rapportParallele == null)
+                    rapportParallele = rapport;
+                else if (!rapport.equals(rapportParallele)) {
+                    System.out.println("erreur: le rapport avec " + f
+                            + " fils n'est pas celui avec " + fils[0]
+                            + " fils");
+                    erreurs++;
+                }
+            }
+        } catch (ConditionsInitialesInvalides e) {
+            System.out.println("erreur: je ne peux pas créer les organismes");
+            e.printStackTrace();
+            return;
+        }
+
+        if (erreurs > 0) {
+            System.out.println(erreurs + " simulation(s) en erreur");
+            System.exit(1);
+        }
+        System.out.println();
+        System.out.print(rapportParallele);
+        System.out.println("chaque proie a été mangée au plus une fois");
+    }
+
+    /**
+     * Simule le lac avec la graine 42 en vérifiant chaque repas.
+     *
+     * @return le rapport final, ou null si une vérification a échoué
+     */
+    private static String simuler(int nombrePlantes, int nombreHerbivores,
+            int nombreCarnivores, int nombreCycles, int fils,
+            boolean predationParallele) throws ConditionsInitialesInvalides {
+        var plantes = new PopulationPlantes();
+        var usine = new UsinePlante();
+        usine.setNomEspece("algue");
+        usine.setBesoinEnergie(1.0);
+        usine.setEfficaciteEnergie(0.5);
+        usine.setResilience(0.5);
+        usine.setFertilite(0.2);
+        usine.setAgeFertilite(0);
+        usine.setEnergieEnfant(1.0);
+        plantes.ajouter(usine.creerEspece(), nombrePlantes);
+
+        List<Herbivore> herbivores = new ArrayList<>();
+        var usineHerbivore = new UsineHerbivore();
+        usineHerbivore.setNomEspece("perche");
+        usineHerbivore.setBesoinEnergie(1.0);
+        usineHerbivore.setEfficaciteEnergie(0.5);
+        usineHerbivore.setResilience(0.5);
+        usineHerbivore.setFertilite(0.2);
+        usineHerbivore.setAgeFertilite(0);
+        usineHerbivore.setEnergieEnfant(2.0);
+        usineHerbivore.setDebrouillardise(0.5);
+        usineHerbivore.setVoraciteMax(0.5);
+        usineHerbivore.setVoraciteMin(0.1);
+        usineHerbivore.addAliment("algue");
+        for (int i = 0; i < nombreHerbivores; i++)
+            herbivores.add(usineHerbivore.creerOrganisme());
+
+        List<Carnivore> carnivores = new ArrayList<>();
+        var usineCarnivore = new UsineCarnivore();
+        usineCarnivore.setNomEspece("brochet");
+        usineCarnivore.setBesoinEnergie(2.0);
+        usineCarnivore.setEfficaciteEnergie(0.5);
+        usineCarnivore.setResilience(0.5);
+        usineCarnivore.setFertilite(0.2);
+        usineCarnivore.setAgeFertilite(0);
+        usineCarnivore.setEnergieEnfant(5.0);
+        usineCarnivore.setDebrouillardise(0.5);
+        usineCarnivore.addAliment("perche");
+        usineCarnivore.addAliment("brochet");
+        for (int i = 0; i < nombreCarnivores; i++)
+            carnivores.add(usineCarnivore.creerOrganisme());
+
+        var lac = new Lac(nombrePlantes / 2, plantes, herbivores, carnivores);
+        lac.setGraine(42);
+        lac.setFils(fils);
+        lac.setPredationParallele(predationParallele);
+        var temoin = new Temoin();
+        lac.setTemoin(temoin);
+
+        long duree = 0;
+        for (int i = 0; i < nombreCycles; i++) {
+            temoin.mangeurs.clear();
+            long debut = System.nanoTime();
+            lac.tick();
+            duree += System.nanoTime() - debut;
+        }
+        lac.setFils(1);
+
+        System.out.printf("%s, %d fils: %.1f ms par cycle, %.1f repas"
+                + " par cycle", predationParallele ? "parallèle"
+                        : "séquentielle", fils,
+                duree / 1e6 / nombreCycles,
+                (double) temoin.repas.get() / nombreCycles);
+        if (predationParallele)
+            System.out.printf(", %.1f rondes par cycle",
+                    (double) temoin.rondes / nombreCycles);
+        System.out.println();
+
+        if (temoin.erreurs.get() > 0)
+            return null;
+        var rapport = new ByteArrayOutputStream();
+        lac.imprimeRapport(new PrintStream(rapport));
+        return rapport.toString();
+    }
+}
@@ -0,0 +1,247 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.random.RandomGenerator;
+
+import conditionsinitialesinvalides.ConditionsInitialesInvalides;
+import organisme.*;
+
+/**
+ * Ce programme vérifie que les tirages géométriques de rechercheRepas et de
+ * reproduction donnent la même loi que les anciennes boucles qui tiraient un
+ * nombre au hasard par repas ou par unité d'énergie. Les anciennes boucles
+ * sont recopiées ici telles qu'elles étaient, puis, pour plusieurs
+ * paramètres, on compare les histogrammes des deux versions avec un test du
+ * khi-deux à deux échantillons (les classes sont regroupées jusqu'à en
+ * attendre au moins 5 de chaque côté).
+ *
+ * Le nombre de repas est comparé pour plusieurs débrouillardises, et le
+ * nombre d'enfants (-1 quand le parent meurt) pour plusieurs fertilités,
+ * énergies d'enfant et surplus d'énergie. On affiche aussi les moyennes et
+ * l'énergie moyenne du parent après la reproduction.
+ *
+ * Options: --tirages N (200 000 par défaut) et --graine G (1 par défaut). Les
+ * graines sont fixes, donc le résultat est toujours le même. Le programme
+ * termine avec le code 1 si un des tests rejette l'égalité des lois au seuil
+ * de 0,1 %, ce qui ne devrait arriver que pour une sur mille des graines.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class VerifTirages {
+
+    // Valeur critique d'une loi normale centrée réduite au seuil de 0,1 %
+    private static final double Z_CRITIQUE = 3.09;
+
+    /**
+     * L'ancienne version de rechercheRepas: on tire un nombre par repas
+     * jusqu'à ce que la débrouillardise échoue.
+     */
+    private static int ancienRepas(double debrouillardise,
+            RandomGenerator rnd) {
+        int nombreRepas = 0;
+        while (rnd.nextDouble() < debrouillardise)
+            nombreRepas++;
+        return nombreRepas;
+    }
+
+    /**
+     * L'ancienne version de reproduction pour un parent assez âgé: on tire un
+     * nombre par unité d'énergie en trop. Retourne le nombre d'enfants, ou -1
+     * si le parent meurt, et met l'énergie finale du parent dans energie[0].
+     */
+    private static int ancienneReproduction(double[] energie,
+            double besoinEnergie, double efficaciteEnergie, double fertilite,
+            double energieEnfant, double energieAbsorbee,
+            RandomGenerator rnd) {
+        int nombreEnfant = 0;
+        double energieSupp = energieAbsorbee - besoinEnergie;
+        double energieRestante = energieSupp;
+        double i = energieSupp;
+        while (i >= 1) {
+            if (rnd.nextDouble() > fertilite) {
+                i--;
+                continue;
+            }
+            energieRestante -= energieEnfant;
+            i -= energieEnfant;
+            if (i < 0) {
+                energie[0] += i;
+                if (energie[0] < 0)
+                    return -1;
+            }
+            nombreEnfant++;
+        }
+        if (energieRestante > 0)
+            energie[0] += efficaciteEnergie * energieRestante;
+        return nombreEnfant;
+    }
+
+    /**
+     * Test du khi-deux à deux échantillons de même taille. Retourne l'écart
+     * normalisé de Wilson-Hilferty, qui suit à peu près une loi normale
+     * centrée réduite si les deux histogrammes viennent de la même loi.
+     */
+    private static double ecartKhiDeux(Map<Integer, Integer> a,
+            Map<Integer, Integer> b, StringBuilder description) {
+        var valeurs = new TreeSet<>(a.keySet());
+        valeurs.addAll(b.keySet());
+
+        // On regroupe les classes voisines jusqu'à en attendre au moins 5
+        double khiDeux = 0;
+        int degres = -1;
+        double na = 0;
+        double nb = 0;
+        for (Iterator<Integer> it = valeurs.iterator(); it.hasNext();) {
+            int valeur = it.next();
+            na += a.getOrDefault(valeur, 0);
+            nb += b.getOrDefault(valeur, 0);
+            if ((na + nb) / 2 >= 5 || !it.hasNext()) {
+                khiDeux += (na - nb) * (na - nb) / (na + nb);
+                degres++;
+                na = 0;
+                nb = 0;
+            }
+        }
+
+        description.append(String.format("khi2=%.1f ddl=%d", khiDeux,
+                degres));
+        // Une seule classe: les deux lois sont la même constante
+        if (degres <= 0)
+            return 0;
+        double v = 2.0 / (9 * degres);
+        return (Math.cbrt(khiDeux / degres) - (1 - v)) / Math.sqrt(v);
+    }
+
+    private static double moyenne(Map<Integer, Integer> histogramme,
+            int nombre) {
+        double somme = 0;
+        for (var e : histogramme.entrySet())
+            somme += (double) e.getKey() * e.getValue();
+        return somme / nombre;
+    }
+
+    public static void main(String[] args) {
+        int nombreTirages = 200_000;
+        long graine = 1;
+
+        Iterator<String> argsIterator = Arrays.stream(args).iterator();
+        while (argsIterator.hasNext()) {
+            var next = argsIterator.next();
+            switch (next) {
+                case "--tirages" -> nombreTirages =
+                        Integer.parseInt(argsIterator.next());
+                case "--graine" -> graine =
+                        Long.parseLong(argsIterator.next());
+                default -> {
+                    System.out.println(
+                            "erreur: option inconnue \"" + next + "\"");
+                    return;
+                }
+            }
+        }
+
+        var rnd = new SplittableRandom(graine);
+        int rejets = 0;
+
+        try {
+            // Le nombre de repas
+            for (double debrouillardise : new double[] { 0, 0.3, 0.5, 0.9,
+                    0.99 }) {
+                var usine = new UsineHerbivore();
+                usine.setNomEspece("perche");
+                usine.setBesoinEnergie(1.0);
+                usine.setEfficaciteEnergie(0.5);
+                usine.setResilience(0.5);
+                usine.setFertilite(0.2);
+                usine.setAgeFertilite(0);
+                usine.setEnergieEnfant(1.0);
+                usine.setDebrouillardise(debrouillardise);
+                usine.setVoraciteMax(0.5);
+                usine.setVoraciteMin(0.1);
+                usine.addAliment("algue");
+                Herbivore herbivore = usine.creerOrganisme();
+
+                Map<Integer, Integer> boucle = new TreeMap<>();
+                Map<Integer, Integer> tirage = new TreeMap<>();
+                for (int k = 0; k < nombreTirages; k++) {
+                    boucle.merge(ancienRepas(debrouillardise, rnd), 1,
+                            Integer::sum);
+                    tirage.merge(herbivore.rechercheRepas(rnd), 1,
+                            Integer::sum);
+                }
+
+                var description = new StringBuilder();
+                double z = ecartKhiDeux(boucle, tirage, description);
+                boolean rejet = z > Z_CRITIQUE;
+                if (rejet)
+                    rejets++;
+                System.out.printf(
+                        "repas d=%.2f: boucle %.4f, tirage %.4f, %s z=%.2f%s%n",
+                        debrouillardise, moyenne(boucle, nombreTirages),
+                        moyenne(tirage, nombreTirages), description, z,
+                        rejet ? " REJET" : "");
+            }
+
+            // Le nombre d'enfants, le parent commence avec l'énergie d'un
+            // enfant et n'a pas besoin d'attendre pour se reproduire
+            for (double fertilite : new double[] { 0, 0.2, 0.5, 0.9, 1 })
+                for (double energieEnfant : new double[] { 0.5, 1, 2.5 })
+                    for (double surplus : new double[] { 0.5, 3.7, 50 }) {
+                        var usine = new UsinePlante();
+                        usine.setNomEspece("algue");
+                        usine.setBesoinEnergie(1.0);
+                        usine.setEfficaciteEnergie(0.5);
+                        usine.setResilience(0.5);
+                        usine.setFertilite(fertilite);
+                        usine.setAgeFertilite(0);
+                        usine.setEnergieEnfant(energieEnfant);
+
+                        Map<Integer, Integer> boucle = new TreeMap<>();
+                        Map<Integer, Integer> tirage = new TreeMap<>();
+                        double energieBoucle = 0;
+                        double energieTirage = 0;
+                        double[] energie = new double[1];
+                        for (int k = 0; k < nombreTirages; k++) {
+                            energie[0] = energieEnfant;
+                            boucle.merge(ancienneReproduction(energie, 1.0,
+                                    0.5, fertilite, energieEnfant,
+                                    1 + surplus, rnd), 1, Integer::sum);
+                            energieBoucle += energie[0];
+
+                            Plante plante = usine.creerOrganisme();
+                            tirage.merge(plante.reproduction(1 + surplus,
+                                    rnd), 1, Integer::sum);
+                            energieTirage += plante.getEnergie();
+                        }
+
+                        var description = new StringBuilder();
+                        double z = ecartKhiDeux(boucle, tirage, description);
+                        boolean rejet = z > Z_CRITIQUE;
+                        if (rejet)
+                            rejets++;
+                        System.out.printf("enfants f=%.1f e=%.1f surplus=%4.1f:"
+                                + " boucle %.4f (E=%.4f), tirage %.4f"
+                                + " (E=%.4f), %s z=%.2f%s%n",
+                                fertilite, energieEnfant, surplus,
+                                moyenne(boucle, nombreTirages),
+                                energieBoucle / nombreTirages,
+                                moyenne(tirage, nombreTirages),
+                                energieTirage / nombreTirages, description,
+                                z, rejet ? " REJET" : "");
+                    }
+        } catch (ConditionsInitialesInvalides e) {
+            System.out.println("erreur: je ne peux pas créer les organismes");
+            e.printStackTrace();
+            return;
+        }
+
+        if (rejets > 0) {
+            System.out.println(rejets + " test(s) rejeté(s)");
+            System.exit(1);
+        }
+        System.out.println("les deux versions suivent la même loi");
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Les opérations mesurées par les bancs JMH du paquet banc, qui ne peuvent
+ * pas utiliser directement les classes du paquet par défaut.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class OperationsBanc implements banc.Operations {
+    @Override
+    public Object creerLac(int plantes, int herbivores, int carnivores,
+            int fils, boolean predationParallele, double pasCohortes)
+            throws Exception {
+        Lac lac = BancLac.creerLac(plantes, herbivores, carnivores,
+                pasCohortes);
+        lac.setGraine(42);
+        lac.setFils(fils);
+        lac.setPredationParallele(predationParallele);
+        return lac;
+    }
+
+    @Override
+    public void tick(Object lac) {
+        ((Lac) lac).tick();
+    }
+
+    @Override
+    public void fermer(Object lac) {
+        ((Lac) lac).setFils(1);
+    }
+}
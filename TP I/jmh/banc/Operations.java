@@ -0,0 +1,31 @@
+package banc;
+
+/**
+ * Les opérations du lac mesurées par les bancs. Le lac est dans le paquet par
+ * défaut, qu'on ne peut pas importer, et JMH refuse les bancs de ce paquet.
+ * Les opérations sont donc faites par la classe OperationsBanc du paquet par
+ * défaut, chargée par son nom, et les lacs passent par Object.
+ *
+ * @author Nicolas Levasseur
+ */
+public interface Operations {
+    /**
+     * Charge les opérations du paquet par défaut.
+     *
+     * @return les opérations du lac.
+     */
+    static Operations charger() throws ReflectiveOperationException {
+        return (Operations) Class.forName("OperationsBanc")
+                .getDeclaredConstructor().newInstance();
+    }
+
+    // Crée le lac de BancLac, avec la graine 42
+    Object creerLac(int plantes, int herbivores, int carnivores, int fils,
+            boolean predationParallele, double pasCohortes) throws Exception;
+
+    // Simule un cycle du lac
+    void tick(Object lac);
+
+    // Arrête les fils d'exécution du lac
+    void fermer(Object lac);
+}
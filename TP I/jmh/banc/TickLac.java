@@ -0,0 +1,78 @@
+package banc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Banc JMH du premier cycle du lac de BancLac. Chaque mesure simule un seul
+ * cycle d'un lac neuf, puisqu'un cycle change le lac: la moitié des plantes
+ * meurent. On compare les temps avec différents nombres de fils, avec la
+ * chasse séquentielle ou parallèle et avec des plantes individuelles ou par
+ * cohortes (pasCohortes > 0).
+ *
+ * @author Nicolas Levasseur
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TickLac {
+    @Param({ "1000000" })
+    public int plantes;
+
+    @Param({ "20000" })
+    public int herbivores;
+
+    @Param({ "5000" })
+    public int carnivores;
+
+    @Param({ "1", "4" })
+    public int fils;
+
+    @Param({ "false", "true" })
+    public boolean predationParallele;
+
+    @Param({ "0" })
+    public double pasCohortes;
+
+    private Operations operations;
+    private Object lac;
+
+    @Setup(Level.Trial)
+    public void charger() throws ReflectiveOperationException {
+        operations = Operations.charger();
+    }
+
+    // Le lac est créé avant chaque mesure, ce n'est pas compté dans le temps
+    @Setup(Level.Invocation)
+    public void creer() throws Exception {
+        lac = operations.creerLac(plantes, herbivores, carnivores, fils,
+                predationParallele, pasCohortes);
+    }
+
+    @TearDown(Level.Invocation)
+    public void fermer() {
+        operations.fermer(lac);
+    }
+
+    @Benchmark
+    public Object tick() {
+        operations.tick(lac);
+        return lac;
+    }
+}
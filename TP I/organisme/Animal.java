@@ -1,6 +1,7 @@
 package organisme;
 
 import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
  * This is the parent class for all the animal in the project and is inherited
@@ -11,66 +12,28 @@ import java.util.Set;
  * @author Adrien Charron
  */
 public abstract class Animal extends Organisme {
-    // Parameter that determines the probability of finding
-    // something to eat.
-    protected double debrouillardise;
-
-    // Specifies the different species an animal can eat.
-    protected Set<String> aliments;
-
-    // The maximum size a animal can grow to.
-    protected final double tailleMaximum;
-
-
-    // Getters for each parameters
+    // Getters for each parameters of the species
     public double getDebrouillardise() {
-        return debrouillardise;
+        return espece.debrouillardise;
     }
 
     public Set<String> getAliments() {
-        return aliments;
+        return espece.aliments;
     }
 
     public double getTailleMaximum() {
-        return tailleMaximum;
+        return espece.tailleMaximum;
     }
 
 
     /**
-     * Constructor for the class Animal, initializes every parameters whenever
-     * a new animal is created.
+     * Constructor for the class Animal, a new animal of the given species has
+     * an age of 0 and the energy of a child of the species.
      * 
-     * @param nomEspece         Specie's name
-     * @param besoinEnergie     Minimal quantity of energy required to maintain
-     *                          itself each cycle
-     * @param efficaciteEnergie Efficiency in converting raw energy into life
-     *                          energy, is used when there are leftovers in
-     *                          energy at the end of a cycle.
-     * @param resilience        The probability to die in a cycle if the needed
-     *                          energy to survive (besoinEnergie) isn't
-     *                          obtained.
-     * @param fertilite         Probability of reproduction in a cycle if the
-     *                          needed energy (besoinEnergie) is surpassed.
-     * @param ageFertilite      The age at which an animal can start
-     *                          reproducing.
-     * @param energieEnfant     The intial energy of a animal when created.
-     * @param debrouillardise   Parameter that determines the probability of
-     *                          finding something to eat.
-     * @param aliments          Specifies the different species an animal can
-     *                          eat.
-     * @param tailleMaximum     The maximum size an animal can grow to.
+     * @param espece The species of the animal.
      */
-    protected Animal(String nomEspece, double besoinEnergie,
-            double efficaciteEnergie, double resilience, double fertilite,
-            int ageFertilite, double energieEnfant, double debrouillardise,
-            Set<String> aliments, double tailleMaximum) {
-
-        super(nomEspece, besoinEnergie, efficaciteEnergie, resilience,
-                fertilite, ageFertilite, energieEnfant);
-
-        this.debrouillardise = debrouillardise;
-        this.aliments = aliments;
-        this.tailleMaximum = tailleMaximum;
+    protected Animal(Espece espece) {
+        super(espece);
     }
 
 
@@ -85,30 +48,30 @@ public abstract class Animal extends Organisme {
 
         // We add the extra energy to the energy of the animal with the
         // the particular efficiency of the animal.
-        double energieTemp = energie + efficaciteEnergie * energieRestante;
+        double energieTemp =
+                energie + espece.efficaciteEnergie * energieRestante;
 
         // We make sure the energy doesn't exceeds the value of tailleMaximum.
         // If so, we set energy to tailleMaximum.
-        energie = energieTemp > tailleMaximum ? tailleMaximum : energie;
+        energie = energieTemp > espece.tailleMaximum ? espece.tailleMaximum
+                : energie;
 
     }
 
     /**
      * This method uses the "debrouillardise" parameter to determine the number
-     * of meal an animal will be able to find.
+     * of meal an animal will be able to find. The animal finds a meal each
+     * time a random number is lower than the debrouillardise, until it fails
+     * once, so the number of meals is drawn in one time from its geometric
+     * distribution instead of testing the meals one by one.
      * 
+     * @param rnd The generator used for the random draws.
      * @return The number of meal found.
      */
-    public int rechercheRepas() {
-
-        // We initialize the parameter for the number of meal.
-        int nombreRepas = 0;
+    public int rechercheRepas(RandomGenerator rnd) {
 
         // We add a meal each time the random number is lower than the
         // debrouillardise parameter.
-        while (Math.random() < debrouillardise)
-            nombreRepas += 1;
-
-        return nombreRepas;
+        return tirageGeometrique(Math.log(espece.debrouillardise), rnd);
     }
 }
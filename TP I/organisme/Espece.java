@@ -0,0 +1,159 @@
+package organisme;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The following class describes a species: all of the parameters that are the
+ * same for every organism of the species. It is immutable and built once for
+ * each species block of the initial conditions by the UsineOrganisme classes,
+ * and every organism of the species holds a reference to it instead of a copy
+ * of each parameter. Two organisms are of the same species if they have the
+ * same Espece.
+ *
+ * The parameters of animals are 0 (and the aliments are empty) for a species
+ * of plants, and so are the voracities for a species of carnivores.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class Espece {
+    // Specie's name
+    final String nomEspece;
+
+    // Minimal quantity of energy required to maintain itself each cycle
+    final double besoinEnergie;
+
+    // Efficiency in converting raw energy into life energy, is used when
+    // there are leftovers in energy at the end of a cycle.
+    final double efficaciteEnergie;
+
+    // The probability to die in a cycle if the needed energy to survive
+    // (besoinEnergie) isn't obtained.
+    final double resilience;
+
+    // Probability of reproduction in a cycle if the needed energy
+    // (besoinEnergie) is surpassed.
+    final double fertilite;
+
+    // The age at which an organism can start reproducing.
+    final int ageFertilite;
+
+    // The intial energy of a organism when created.
+    final double energieEnfant;
+
+    // Parameter that determines the probability of an animal finding
+    // something to eat.
+    final double debrouillardise;
+
+    // Specifies the different species an animal can eat.
+    final Set<String> aliments;
+
+    // The maximum size a animal can grow to.
+    final double tailleMaximum;
+
+    // The minimal efficiency at which an herbivore can eat a plant.
+    final double voraciteMin;
+
+    // The maximal efficiency at which an herbivore can eat a plant.
+    final double voraciteMax;
+
+
+    /**
+     * Constructor for a species of plants.
+     */
+    Espece(String nomEspece, double besoinEnergie, double efficaciteEnergie,
+            double resilience, double fertilite, int ageFertilite,
+            double energieEnfant) {
+        this(nomEspece, besoinEnergie, efficaciteEnergie, resilience,
+                fertilite, ageFertilite, energieEnfant, 0, Set.of(), 0);
+    }
+
+    /**
+     * Constructor for a species of carnivores.
+     */
+    Espece(String nomEspece, double besoinEnergie, double efficaciteEnergie,
+            double resilience, double fertilite, int ageFertilite,
+            double energieEnfant, double debrouillardise,
+            Set<String> aliments, double tailleMaximum) {
+        this(nomEspece, besoinEnergie, efficaciteEnergie, resilience,
+                fertilite, ageFertilite, energieEnfant, debrouillardise,
+                0, 0, aliments, tailleMaximum);
+    }
+
+    /**
+     * Constructor for a species of herbivores, the other constructors call it
+     * with 0 for the parameters that do not apply.
+     */
+    Espece(String nomEspece, double besoinEnergie, double efficaciteEnergie,
+            double resilience, double fertilite, int ageFertilite,
+            double energieEnfant, double debrouillardise, double voraciteMin,
+            double voraciteMax, Set<String> aliments, double tailleMaximum) {
+        this.nomEspece = nomEspece;
+        this.besoinEnergie = besoinEnergie;
+        this.efficaciteEnergie = efficaciteEnergie;
+        this.resilience = resilience;
+        this.fertilite = fertilite;
+        this.ageFertilite = ageFertilite;
+        this.energieEnfant = energieEnfant;
+        this.debrouillardise = debrouillardise;
+        // We keep our own copy, the factory's set can still be changed. Its
+        // order is kept too (Set.copyOf changes it from one run to another),
+        // since the carnivores go through their aliments in that order.
+        this.aliments = Collections
+                .unmodifiableSet(new LinkedHashSet<String>(aliments));
+        this.tailleMaximum = tailleMaximum;
+        this.voraciteMin = voraciteMin;
+        this.voraciteMax = voraciteMax;
+    }
+
+
+    // Getters for each parameters
+    public String getNomEspece() {
+        return nomEspece;
+    }
+
+    public double getBesoinEnergie() {
+        return besoinEnergie;
+    }
+
+    public double getEfficaciteEnergie() {
+        return efficaciteEnergie;
+    }
+
+    public double getResilience() {
+        return resilience;
+    }
+
+    public double getFertilite() {
+        return fertilite;
+    }
+
+    public int getAgeFertilite() {
+        return ageFertilite;
+    }
+
+    public double getEnergieEnfant() {
+        return energieEnfant;
+    }
+
+    public double getDebrouillardise() {
+        return debrouillardise;
+    }
+
+    public Set<String> getAliments() {
+        return aliments;
+    }
+
+    public double getTailleMaximum() {
+        return tailleMaximum;
+    }
+
+    public double getVoraciteMin() {
+        return voraciteMin;
+    }
+
+    public double getVoraciteMax() {
+        return voraciteMax;
+    }
+}
@@ -1,5 +1,7 @@
 package organisme;
 
+import java.util.random.RandomGenerator;
+
 /**
  * This method is the parent class for all the organism in the project. All the
  * shared methods are specified here and will later be called by the class Lac
@@ -9,11 +11,10 @@ package organisme;
  */
 public abstract class Organisme {
 
-    // All the following parameters are needed in order to
-    // create a new organism.
-
-    // Specie's name
-    protected String nomEspece;
+    // The species of the organism, which holds all of the parameters that
+    // are the same for every organism of the species. It is shared, so an
+    // organism only holds its own state.
+    protected final Espece espece;
 
     // The quantity of energy inside the organism, just like health points
     // in a video game, you gain or lose energy and below zero, you die.
@@ -22,31 +23,19 @@ public abstract class Organisme {
     // The age of an organism, gains one year each cycle.
     protected int age;
 
-    // Minimal quantity of energy required to maintain itself each cycle
-    protected double besoinEnergie;
-
-    // Efficiency in converting raw energy into life energy, is used
-    // when there are leftovers in energy at the end of a cycle.
-    protected double efficaciteEnergie;
-
-    // The probability to die in a cycle if the needed energy to survive
-    // (besoinEnergie) isn't obtained.
-    protected double resilience;
-
-    // Probability of reproduction in a cycle if the needed energy
-    // (besoinEnergie) is surpassed.
-    protected double fertilite;
-
-    // The age at which an organism can start reproducing.
-    protected int ageFertilite;
+    // True once the organism died or was eaten. The lake keeps dead organisms
+    // in some of its lists for a while and uses this to skip them.
+    protected boolean mort;
 
-    // The intial energy of a organism when created.
-    protected double energieEnfant;
 
+    // Getters for each parameters, the parameters of the species are read
+    // from it
+    public Espece getEspece() {
+        return espece;
+    }
 
-    // Getters for each parameters
     public String getNomEspece() {
-        return this.nomEspece;
+        return espece.nomEspece;
     }
 
     public double getEnergie() {
@@ -58,76 +47,87 @@ public abstract class Organisme {
     }
 
     public double getBesoinEnergie() {
-        return besoinEnergie;
+        return espece.besoinEnergie;
     }
 
     public double getEfficaciteEnergie() {
-        return efficaciteEnergie;
+        return espece.efficaciteEnergie;
     }
 
     public double getResilience() {
-        return resilience;
+        return espece.resilience;
     }
 
     public double getFertilite() {
-        return fertilite;
+        return espece.fertilite;
     }
 
     public int getAgeFertilite() {
-        return ageFertilite;
+        return espece.ageFertilite;
     }
 
     public double getEnergieEnfant() {
-        return energieEnfant;
+        return espece.energieEnfant;
+    }
+
+    public boolean estMort() {
+        return mort;
     }
 
 
     /**
-     * Constructor for the class Organism, initializes every parameters 
-     * whenever a new organism is created.
+     * Constructor for the class Organism, a new organism of the given species
+     * has an age of 0 and the energy of a child of the species.
      * 
-     * @param nomEspece         Specie's name
-     * @param besoinEnergie     Minimal quantity of energy required to maintain
-     *                          itself each cycle
-     * @param efficaciteEnergie Efficiency in converting raw energy into life
-     *                          energy, is used when there are leftovers in
-     *                          energy at the end of a cycle.
-     * @param resilience        The probability to die in a cycle if the needed
-     *                          energy to survive (besoinEnergie) isn't
-     *                          obtained.
-     * @param fertilite         Probability of reproduction in a cycle if the
-     *                          needed energy (besoinEnergie) is surpassed.
-     * @param ageFertilite      The age at which an organism can start
-     *                          reproducing.
-     * @param energieEnfant     The intial energy of a organism when created.
+     * @param espece The species of the organism.
      */
-    protected Organisme(String nomEspece, double besoinEnergie,
-            double efficaciteEnergie, double resilience, double fertilite,
-            int ageFertilite, double energieEnfant) {
-
-        // Every parameters are initializes with the arguments specified,
-        // expect age and energy, which are set to 0 and energieEnfant 
-        // respectively.
-        this.nomEspece = nomEspece;
-        this.energie = energieEnfant;
+    protected Organisme(Espece espece) {
+        this.espece = espece;
+        this.energie = espece.energieEnfant;
         this.age = 0;
-        this.besoinEnergie = besoinEnergie;
-        this.efficaciteEnergie = efficaciteEnergie;
-        this.resilience = resilience;
-        this.fertilite = fertilite;
-        this.ageFertilite = ageFertilite;
-        this.energieEnfant = energieEnfant;
-
     }
 
     /**
-     * Method defined in the children classes that creates a copy of the
-     * current organism.
+     * Method defined in the children classes that creates a new organism of
+     * the same species as the current organism. Only the reference to the
+     * species is copied.
      * 
      * @return a copy of the current organism
      */
     public abstract Organisme copy();
 
+    /**
+     * This method is called by Lac when the organism dies or is eaten, so the
+     * lists that still hold it know it is not alive anymore.
+     */
+    public void mourir() {
+        mort = true;
+    }
+
+    /**
+     * Draws the number of times in a row a test of the given probability
+     * succeeds before it fails for the first time, like a loop that draws a
+     * random number until the test fails, but with a single draw: the
+     * number is at least n with probability p^n, so it is the integer part
+     * of log(u) / log(p) for a uniform u in (0, 1].
+     * 
+     * @param logProbabilite is log(p), the logarithm of the probability of
+     *                       success of each test.
+     * @param rnd            is the generator used for the random draw.
+     * @return the number of successes before the first failure,
+     *         Integer.MAX_VALUE if the tests always succeed.
+     */
+    static int tirageGeometrique(double logProbabilite,
+            RandomGenerator rnd) {
+        // If the tests always succeed, the loop would never end
+        if (logProbabilite == 0)
+            return Integer.MAX_VALUE;
+
+        // If they never succeed, the log of p is -infinity and we get 0
+        return (int) Math.floor(
+                Math.log(1 - rnd.nextDouble()) / logProbabilite);
+    }
+
     /**
      * This method is call by Lac to update the age of the organism each cycle.
      */
@@ -149,7 +149,7 @@ public abstract class Organisme {
 
         // We add the extra energy to the energy of the organism with the
         // the particular efficiency of the organism.
-        energie += efficaciteEnergie * energieRestante;
+        energie += espece.efficaciteEnergie * energieRestante;
 
     }
 
@@ -177,23 +177,25 @@ public abstract class Organisme {
      * 
      * @param energieAbsorbee is the energy given to the organism from the Sun
      *                        or from eating in the cycle.
+     * @param rnd             is the generator used for the random draws.
      * @return Depending on the ratio between the absorbed energy and the need
      *         in energy, the methods returns the result of "survie",
      *         "reproduction" or 0.
      */
-    public int absortionEnergie(double energieAbsorbee) {
+    public int absortionEnergie(double energieAbsorbee,
+            RandomGenerator rnd) {
 
         // If the required energy for the cycle isn't obtained, we go in the
         // method "survie", to see if the organism dies.
-        if (besoinEnergie > energieAbsorbee)
+        if (espece.besoinEnergie > energieAbsorbee)
 
-            return survie(energieAbsorbee);
+            return survie(energieAbsorbee, rnd);
 
         // If the required energy is obtained, we go in the method
         // reproduction, to see if the organism creates new organism(s).
-        else if (besoinEnergie < energieAbsorbee)
+        else if (espece.besoinEnergie < energieAbsorbee)
 
-            return reproduction(energieAbsorbee);
+            return reproduction(energieAbsorbee, rnd);
 
         // If the required energy and the energy needed are equals, we do
         // nothing, no child is created and the organism survives.
@@ -209,13 +211,14 @@ public abstract class Organisme {
      * 
      * @param energieAbsorbee is the energy given to the organism from the Sun
      *                        or from eating in the cycle.
+     * @param rnd             is the generator used for the random draws.
      * @return returns 0 if the organism survives the cycle and -1 if it dies.
      */
-    public int survie(double energieAbsorbee) {
+    public int survie(double energieAbsorbee, RandomGenerator rnd) {
 
         // This parameter indicates the energy missing that the organism needed
         // for this cycle.
-        double energieManquante = besoinEnergie - energieAbsorbee;
+        double energieManquante = espece.besoinEnergie - energieAbsorbee;
 
         // We remove the missing energy from the energy of the organism.
         energie -= energieManquante;
@@ -232,7 +235,8 @@ public abstract class Organisme {
         // directly the number with decimal and put it for the exponent of
         // resilience. If the random number is higher than the one resulting
         // from the equation of the resilience, the organism dies.
-        if (Math.random() >= Math.pow(resilience, energieManquante)) {
+        if (rnd.nextDouble() >= Math.pow(espece.resilience,
+                energieManquante)) {
             return -1;
         }
 
@@ -246,16 +250,17 @@ public abstract class Organisme {
      * 
      * @param energieAbsorbee is the energy given to the organism from the Sun
      *                        or from eating in the cycle.
+     * @param rnd             is the generator used for the random draws.
      * @return returns the number of child resulting from the reproduction.
      */
-    public int reproduction(double energieAbsorbee) {
+    public int reproduction(double energieAbsorbee, RandomGenerator rnd) {
 
         // We initialize the number of child to 0.
         int nombreEnfant = 0;
 
         // We test if the organism has reached the age of reproduction, if not,
         // nothing happens.
-        if (age < ageFertilite) {
+        if (age < espece.ageFertilite) {
 
             // We add the extra energy to the energy of the organism with the
             // the particular efficiency of the organism.
@@ -265,7 +270,7 @@ public abstract class Organisme {
 
         // This parameter indicates the extra energy for the organism this
         // cycle.
-        double energieSupp = energieAbsorbee - besoinEnergie;
+        double energieSupp = energieAbsorbee - espece.besoinEnergie;
 
         // We initialize the energy that will be left at the end of the turn.
         double energieRestante = energieSupp;
@@ -274,22 +279,28 @@ public abstract class Organisme {
         double i = energieSupp;
 
 
+        // Logarithm of the probability that a test of fertility fails.
+        double logEchec = Math.log1p(-espece.fertilite);
+
         // For every unit of extra energy, we test the fertility of the
-        // organism.
+        // organism. A failed test only uses one unit, so instead of doing the
+        // tests one by one, we draw how many of them fail before the next
+        // success, which gives the same distribution with one draw for each
+        // child.
         while (i >= 1) {
-            // We test the probability of creating a new organism, if the the
-            // random number is lower than the parameter "fertilite", the
-            // organism produces a child. If not, we continue the loop.
-            if (Math.random() > fertilite) {
-                i--;
-                continue;
-            }
-            
+            // We draw the number of failed tests before the next success. If
+            // there are more than the units left, all of the remaining tests
+            // fail and the loop ends.
+            int echecs = tirageGeometrique(logEchec, rnd);
+            if (echecs >= Math.floor(i))
+                break;
+            i -= echecs;
+
             // The test succeeded so we remove the energy required for a new
             // organism, specified by the parameter "energieEnfant" and we
             // decrease the iterable i.
-            energieRestante -= energieEnfant;
-            i -= energieEnfant;
+            energieRestante -= espece.energieEnfant;
+            i -= espece.energieEnfant;
 
             // If the extra energy becomes negative because of the removed
             // energy, we take the energy missing for the creation of an
@@ -0,0 +1,83 @@
+package organisme;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The following class runs the phases of a tick that can be parallel. A
+ * population is cut in partitions of consecutive organisms, and an action is
+ * run for the index of each partition, on a ForkJoinPool or one partition
+ * after the other. The actions must only write what belongs to their
+ * partition, so the result does not depend on how they are scheduled.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class Partitions {
+    private Partitions() {
+    }
+
+    /**
+     * This class runs an action on a range of partitions, splitting the range
+     * in two halves until there is only one partition left, like a merge sort
+     * splits its array.
+     *
+     * @author Nicolas Levasseur
+     */
+    private static final class ParPartitions extends RecursiveAction {
+        // Used for the serializable interface of RecursiveAction
+        static final long serialVersionUID = 1L;
+
+        // Range of partitions, from debut (inclusive) to fin (exclusive)
+        private final int debut;
+        private final int fin;
+        // Action run for the index of each partition
+        private final IntConsumer action;
+
+        ParPartitions(int debut, int fin, IntConsumer action) {
+            this.debut = debut;
+            this.fin = fin;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut == 1) {
+                action.accept(debut);
+                return;
+            }
+
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new ParPartitions(debut, milieu, action),
+                    new ParPartitions(milieu, fin, action));
+        }
+    }
+
+    /**
+     * Gives the number of partitions needed for a population.
+     *
+     * @param taille          The number of organisms.
+     * @param taillePartition The number of organisms in a partition.
+     * @return The number of partitions, the last one can be smaller.
+     */
+    public static int nombre(int taille, int taillePartition) {
+        return (int) (((long) taille + taillePartition - 1) / taillePartition);
+    }
+
+    /**
+     * Runs an action for each partition, on the pool if there is one and
+     * more than one partition, or else one partition after the other.
+     *
+     * @param pool   The pool that runs the partitions, or null.
+     * @param nombre The number of partitions.
+     * @param action The action, that gets the index of a partition.
+     */
+    public static void pourChaque(ForkJoinPool pool, int nombre,
+            IntConsumer action) {
+        if (pool == null || nombre <= 1) {
+            for (int p = 0; p < nombre; p++)
+                action.accept(p);
+        } else
+            pool.invoke(new ParPartitions(0, nombre, action));
+    }
+}
@@ -12,37 +12,18 @@ public final class Plante extends Organisme {
 
 
     /**
-     * Constructor for the class Plant, initializes every parameters whenever a
-     * new plant is created.
+     * Constructor for the class Plant, a new plant of the given species has an
+     * age of 0 and the energy of a child of the species.
      * 
-     * @param nomEspece         Specie's name
-     * @param besoinEnergie     Minimal quantity of energy required to maintain
-     *                          itself each cycle
-     * @param efficaciteEnergie Efficiency in converting raw energy into life
-     *                          energy, is used when there are leftovers in
-     *                          energy at the end of a cycle.
-     * @param resilience        The probability to die in a cycle if the needed
-     *                          energy to survive (besoinEnergie) isn't
-     *                          obtained.
-     * @param fertilite         Probability of reproduction in a cycle if the
-     *                          needed energy (besoinEnergie) is surpassed.
-     * @param ageFertilite      The age at which an plant can start
-     *                          reproducing.
-     * @param energieEnfant     The intial energy of a plant when created.
+     * @param espece The species of the plant.
      */
-    protected Plante(String nomEspece, double besoinEnergie,
-            double efficaciteEnergie, double resilience, double fertilite,
-            int ageFertilite, double energieEnfant) {
-
-        super(nomEspece, besoinEnergie, efficaciteEnergie, resilience,
-                fertilite, ageFertilite, energieEnfant);
-
+    protected Plante(Espece espece) {
+        super(espece);
     }
 
     @Override
     public Plante copy(){
-        return new Plante(nomEspece, besoinEnergie, efficaciteEnergie,
-                resilience, fertilite, ageFertilite, energieEnfant);
+        return new Plante(espece);
     }
 
 }
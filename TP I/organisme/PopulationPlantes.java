@@ -0,0 +1,382 @@
+package organisme;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+/**
+ * The following class holds all of the plants of the lake without creating an
+ * object for each of them. A plant is an index in parallel arrays that only
+ * contain what changes from one plant to another: its energy, its age and the
+ * index of its species in a table of species, where the Espece of each species
+ * is stored once.
+ *
+ * The tick of the plants goes through the arrays by partitions, which can be
+ * processed in parallel. For each plant, the energy and the age are put in a
+ * working Plante of its species, so the rules of Organisme (survie,
+ * reproduction, ...) are used without being copied here.
+ *
+ * @author Nicolas Levasseur
+ */
+public final class PopulationPlantes {
+    // Number of plants a new population can hold before growing its arrays
+    private static final int CAPACITE_INITIALE = 64;
+    // Number of plants in a partition. Each partition of the population
+    // draws its random numbers from its own stream.
+    static final int TAILLE_PARTITION = 1 << 14;
+
+    // The species of the plants
+    private final List<Espece> especes;
+
+    // The energy of each plant
+    private double[] energie;
+    // The age of each plant
+    private int[] age;
+    // The index of the species of each plant in especes
+    private int[] espece;
+    // Number of new plants of each plant during the current tick, -1 if the
+    // plant died
+    private int[] enfants;
+    // Number of plants in the population
+    private int taille;
+
+    // Arrays in which the plants are moved at the end of a tick, before they
+    // are swapped with energie, age and espece. They are kept for the next
+    // tick, null until the first one.
+    private double[] energieSuivante;
+    private int[] ageSuivant;
+    private int[] especeSuivante;
+
+
+    /**
+     * Constructor for an empty population.
+     */
+    public PopulationPlantes() {
+        this.especes = new ArrayList<Espece>();
+        this.energie = new double[CAPACITE_INITIALE];
+        this.age = new int[CAPACITE_INITIALE];
+        this.espece = new int[CAPACITE_INITIALE];
+        this.enfants = new int[CAPACITE_INITIALE];
+    }
+
+    /**
+     * Constructor for a population holding the given plants, with their
+     * current energy and age.
+     *
+     * @param plantes The plants to put in the population.
+     */
+    public PopulationPlantes(List<Plante> plantes) {
+        this();
+        for (Plante plante : plantes) {
+            int i = ajouterPlante(indiceEspece(plante.getEspece()));
+            energie[i] = plante.energie;
+            age[i] = plante.age;
+        }
+    }
+
+
+    /**
+     * Gives the index of a species in the table of species, adding it if it
+     * is not there yet.
+     *
+     * @param espece The species.
+     * @return The index of the species.
+     */
+    private int indiceEspece(Espece espece) {
+        for (int i = 0; i < especes.size(); i++)
+            if (especes.get(i) == espece)
+                return i;
+
+        especes.add(espece);
+        return especes.size() - 1;
+    }
+
+    /**
+     * Adds a new plant of a species at the end of the arrays, growing them if
+     * they are full. The plant has the energy of a child and an age of 0.
+     *
+     * @param indiceEspece The index of the species of the plant.
+     * @return The index of the new plant.
+     */
+    private int ajouterPlante(int indiceEspece) {
+        if (taille == energie.length) {
+            int capacite = energie.length * 2;
+            energie = Arrays.copyOf(energie, capacite);
+            age = Arrays.copyOf(age, capacite);
+            espece = Arrays.copyOf(espece, capacite);
+            enfants = Arrays.copyOf(enfants, capacite);
+        }
+
+        energie[taille] = especes.get(indiceEspece).energieEnfant;
+        age[taille] = 0;
+        espece[taille] = indiceEspece;
+        return taille++;
+    }
+
+    /**
+     * Adds new plants of a species to the population, with the energy of a
+     * child and an age of 0.
+     *
+     * @param espece The species of the new plants.
+     * @param nombre The number of plants to add.
+     */
+    public void ajouter(Espece espece, int nombre) {
+        int indice = indiceEspece(espece);
+        for (int i = 0; i < nombre; i++)
+            ajouterPlante(indice);
+    }
+
+
+    // Getters for the population and for each plant
+    public int taille() {
+        return taille;
+    }
+
+    public String getNomEspece(int plante) {
+        return especes.get(espece[plante]).nomEspece;
+    }
+
+    public double getEnergie(int plante) {
+        return energie[plante];
+    }
+
+    public int getAge(int plante) {
+        return age[plante];
+    }
+
+
+    /**
+     * Gives the indices of all of the plants of the given species, used by
+     * the herbivores to know what they can eat.
+     *
+     * @param nomsEspeces The names of the species.
+     * @return The indices of the plants of those species, in order.
+     */
+    public int[] indicesDesEspeces(Set<String> nomsEspeces) {
+        // We first find which species of the table are wanted
+        boolean[] voulue = new boolean[especes.size()];
+        for (int e = 0; e < voulue.length; e++)
+            voulue[e] = nomsEspeces.contains(especes.get(e).nomEspece);
+
+        int nombre = 0;
+        for (int i = 0; i < taille; i++)
+            if (voulue[espece[i]])
+                nombre++;
+
+        int[] indices = new int[nombre];
+        nombre = 0;
+        for (int i = 0; i < taille; i++)
+            if (voulue[espece[i]])
+                indices[nombre++] = i;
+        return indices;
+    }
+
+    /**
+     * Same as Organisme.mangee for the given plant.
+     *
+     * @param plante   The index of the plant that is eaten.
+     * @param voracite A percentage of the plant that will get eaten.
+     * @return The energy lost by the plant.
+     */
+    public double mangee(int plante, double voracite) {
+        double energiePerdue = energie[plante] * voracite;
+        energie[plante] -= energiePerdue;
+        return energiePerdue;
+    }
+
+    /**
+     * Simulates what happens for all of the plants during a tick, like
+     * Lac.plantTick did with Plante objects. Every plant gets one turn, the
+     * dead plants are removed and the new plants are added after all of the
+     * alive ones, in the order of their parents.
+     *
+     * The population is cut in partitions of TAILLE_PARTITION plants, and
+     * each one gets its own stream split from the given generator, in order.
+     * The partitions can then be processed in parallel: each one counts its
+     * alive plants and its births, the place of each partition in the new
+     * arrays is found from these counts, and each one moves its plants
+     * there. The total energy is also summed by partition and the sums are
+     * added in order. So for a given seed, the result does not depend on the
+     * number of threads nor on the order in which the partitions are done.
+     *
+     * @param energieSolaire Solar energy shared by the plants.
+     * @param rnd            The generator the streams are split from.
+     * @param pool           The pool that processes the partitions, or null
+     *                       to process them one after the other.
+     */
+    public void tick(double energieSolaire, SplittableRandom rnd,
+            ForkJoinPool pool) {
+        int nombre = Partitions.nombre(taille, TAILLE_PARTITION);
+        SplittableRandom[] flux = new SplittableRandom[nombre];
+        for (int p = 0; p < nombre; p++)
+            flux[p] = rnd.split();
+
+        double[] sommes = new double[nombre];
+        Partitions.pourChaque(pool, nombre, p -> {
+            for (int i = debut(p); i < fin(p); i++)
+                sommes[p] += energie[i];
+        });
+        double total = 0;
+        for (double somme : sommes)
+            total += somme;
+        final double sommeEnergie = total;
+
+        // Number of alive plants and of births of each partition
+        int[] vivantes = new int[nombre];
+        int[] naissances = new int[nombre];
+        Partitions.pourChaque(pool, nombre,
+                p -> tickPartition(p, energieSolaire, sommeEnergie, flux[p],
+                        vivantes, naissances));
+
+        // The alive plants of a partition go after those of the partitions
+        // before it, and so do its new plants after all of the alive ones
+        int[] debutVivantes = new int[nombre];
+        int[] debutNaissances = new int[nombre];
+        int totalVivantes = 0;
+        int totalNaissances = 0;
+        for (int p = 0; p < nombre; p++) {
+            debutVivantes[p] = totalVivantes;
+            debutNaissances[p] = totalNaissances;
+            totalVivantes += vivantes[p];
+            totalNaissances = Math.addExact(totalNaissances, naissances[p]);
+        }
+        int nouvelleTaille = Math.addExact(totalVivantes, totalNaissances);
+
+        if (energieSuivante == null
+                || energieSuivante.length < nouvelleTaille) {
+            int capacite = Math.max(nouvelleTaille, CAPACITE_INITIALE);
+            energieSuivante = new double[capacite];
+            ageSuivant = new int[capacite];
+            especeSuivante = new int[capacite];
+        }
+
+        final int premiereNaissance = totalVivantes;
+        Partitions.pourChaque(pool, nombre, p -> deplacerPartition(p,
+                debutVivantes[p], premiereNaissance + debutNaissances[p]));
+
+        // The new arrays become the population, and the old ones are kept
+        // for the next tick
+        double[] energieAvant = energie;
+        int[] ageAvant = age;
+        int[] especeAvant = espece;
+        energie = energieSuivante;
+        age = ageSuivant;
+        espece = especeSuivante;
+        energieSuivante = energieAvant;
+        ageSuivant = ageAvant;
+        especeSuivante = especeAvant;
+        taille = nouvelleTaille;
+
+        if (enfants.length < energie.length)
+            enfants = new int[energie.length];
+    }
+
+    // Index of the first plant of a partition
+    private static int debut(int partition) {
+        return partition * TAILLE_PARTITION;
+    }
+
+    // Index after the last plant of a partition
+    private int fin(int partition) {
+        return Math.min(debut(partition) + TAILLE_PARTITION, taille);
+    }
+
+    /**
+     * Gives their turn to the plants of a partition, without removing the
+     * dead ones nor adding the new ones. The partition has its own working
+     * plants, so partitions can be processed at the same time.
+     *
+     * @param partition      The index of the partition.
+     * @param energieSolaire Solar energy shared by the plants.
+     * @param sommeEnergie   Total energy of the plants before the tick.
+     * @param rnd            The stream of the partition.
+     * @param vivantes       Receives the number of alive plants of each
+     *                       partition.
+     * @param naissances     Receives the number of new plants of each
+     *                       partition.
+     */
+    private void tickPartition(int partition, double energieSolaire,
+            double sommeEnergie, RandomGenerator rnd, int[] vivantes,
+            int[] naissances) {
+        // One working plant for each species, created when it is needed
+        Plante[] travail = new Plante[especes.size()];
+
+        for (int i = debut(partition); i < fin(partition); i++) {
+            // We run the rules of Organisme on the working plant of the
+            // species, with the state of this plant
+            Plante plante = travail[espece[i]];
+            if (plante == null)
+                plante = travail[espece[i]] =
+                        new Plante(especes.get(espece[i]));
+            plante.energie = energie[i];
+            plante.age = age[i];
+
+            plante.augmenteAge();
+            enfants[i] = plante.absortionEnergie(
+                    plante.energie * energieSolaire / sommeEnergie, rnd);
+
+            energie[i] = plante.energie;
+            age[i] = plante.age;
+
+            if (enfants[i] >= 0) {
+                vivantes[partition]++;
+                naissances[partition] =
+                        Math.addExact(naissances[partition], enfants[i]);
+            }
+        }
+    }
+
+    /**
+     * Moves the alive plants of a partition and their new plants to the next
+     * arrays.
+     *
+     * @param partition The index of the partition.
+     * @param vivante   The index of the first alive plant of the partition
+     *                  in the next arrays.
+     * @param naissance The index of the first new plant of the partition in
+     *                  the next arrays.
+     */
+    private void deplacerPartition(int partition, int vivante,
+            int naissance) {
+        for (int i = debut(partition); i < fin(partition); i++) {
+            if (enfants[i] < 0)
+                continue;
+
+            energieSuivante[vivante] = energie[i];
+            ageSuivant[vivante] = age[i];
+            especeSuivante[vivante] = espece[i];
+            vivante++;
+
+            double energieEnfant = especes.get(espece[i]).energieEnfant;
+            for (int j = 0; j < enfants[i]; j++) {
+                energieSuivante[naissance] = energieEnfant;
+                ageSuivant[naissance] = 0;
+                especeSuivante[naissance] = espece[i];
+                naissance++;
+            }
+        }
+    }
+
+    /**
+     * Gives the number of plants and their total energy for each species
+     * name, as the report of the lake prints them.
+     *
+     * @return The statistics of the energy of the plants by species name.
+     */
+    public Map<String, DoubleSummaryStatistics> resumeParEspece() {
+        Map<String, DoubleSummaryStatistics> resume =
+                new HashMap<String, DoubleSummaryStatistics>();
+        for (int i = 0; i < taille; i++)
+            resume.computeIfAbsent(getNomEspece(i),
+                    nomEspece -> new DoubleSummaryStatistics())
+                    .accept(energie[i]);
+        return resume;
+    }
+}
@@ -19,7 +19,8 @@ import conditionsinitialesinvalides.ConditionsInitialesInvalides;
 public abstract class UsineAnimal extends UsineOrganisme {
     // Parameters that are used specifically to create a new animal
 
-    // Probability to eat, must be between 0 and 1
+    // Probability to eat, must be between 0 and 1 (excluded), an animal
+    // that always finds a meal would never stop eating
     protected double debrouillardise;
     
     // All of the things that the organism can feed upon, cannot be null
@@ -51,10 +52,10 @@ public abstract class UsineAnimal extends UsineOrganisme {
     // each parameters, check the parameter in question)
     public void setDebrouillardise(double debrouillardise)
             throws ConditionsInitialesInvalides {
-        if (debrouillardise < 0 || debrouillardise > 1)
+        if (debrouillardise < 0 || debrouillardise >= 1)
             throw new ConditionsInitialesInvalides(
-                    "La dbrouillardise spcifie n'est pas comprise entre 0 "
-                            + "et 1");
+                    "La débrouillardise spécifiée n'est pas comprise entre 0 "
+                            + "et 1 (exclu)");
 
         this.debrouillardise = debrouillardise;
         parametresInitialises.put("debrouillardise", true);
@@ -64,7 +65,7 @@ public abstract class UsineAnimal extends UsineOrganisme {
             throws ConditionsInitialesInvalides {
         if (aliment.isEmpty())
             throw new ConditionsInitialesInvalides(
-                    "L'aliment n'est pas spcifi");
+                    "L'aliment n'est pas spécifié");
 
         this.aliments.add(aliment);
         parametresInitialises.put("aliments", true);
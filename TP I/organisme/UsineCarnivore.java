@@ -13,7 +13,10 @@ import conditionsinitialesinvalides.ConditionsInitialesInvalides;
  */
 public final class UsineCarnivore extends UsineAnimal {
     @Override
-    public Carnivore creerOrganisme() throws ConditionsInitialesInvalides {
+    public Espece creerEspece() throws ConditionsInitialesInvalides {
+        if (espece != null)
+            return espece;
+
         // We check if tailleMaximum has been initialized and if it was not, 
         // we set its value to the default value
         if (!parametresInitialises.get("tailleMaximum")) {
@@ -24,11 +27,17 @@ public final class UsineCarnivore extends UsineAnimal {
         for (Boolean initialise : parametresInitialises.values())
             if (!initialise)
                 throw new ConditionsInitialesInvalides(
-                        "Tous les paramtres n'ont pas ts initialiss avant "
-                                + "de crer le carnivore");
+                        "Tous les paramètres n'ont pas étés initialisés avant "
+                                + "de créer le carnivore");
 
-        return new Carnivore(nomEspece, besoinEnergie, efficaciteEnergie,
+        espece = new Espece(nomEspece, besoinEnergie, efficaciteEnergie,
                 resilience, fertilite, ageFertilite, energieEnfant,
                 debrouillardise, aliments, tailleMaximum);
+        return espece;
+    }
+
+    @Override
+    public Carnivore creerOrganisme() throws ConditionsInitialesInvalides {
+        return new Carnivore(creerEspece());
     }
 }
@@ -72,7 +72,10 @@ public final class UsineHerbivore extends UsineAnimal {
 
     
     @Override
-    public Herbivore creerOrganisme() throws ConditionsInitialesInvalides {
+    public Espece creerEspece() throws ConditionsInitialesInvalides {
+        if (espece != null)
+            return espece;
+
         // We check if tailleMaximum has been initialized and if it was not, 
         // we set its value to the default value
         if (!parametresInitialises.get("tailleMaximum")) {
@@ -86,9 +89,15 @@ public final class UsineHerbivore extends UsineAnimal {
                         "Tous les paramètres n'ont pas étés initialisés avant "
                                 + "de créer l'herbivore");
 
-        return new Herbivore(nomEspece, besoinEnergie, efficaciteEnergie,
+        espece = new Espece(nomEspece, besoinEnergie, efficaciteEnergie,
                 resilience, fertilite, ageFertilite, energieEnfant,
                 debrouillardise, voraciteMin, voraciteMax, aliments,
                 tailleMaximum);
+        return espece;
+    }
+
+    @Override
+    public Herbivore creerOrganisme() throws ConditionsInitialesInvalides {
+        return new Herbivore(creerEspece());
     }
 }
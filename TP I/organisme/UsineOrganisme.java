@@ -47,6 +47,10 @@ public abstract class UsineOrganisme {
     // performance, but for readability purposes we instead made a Map)
     protected Map<String, Boolean> parametresInitialises;
 
+    // The species described by the parameters, built with the first organism
+    // and shared by all of the organisms created after it
+    protected Espece espece;
+
 
     /**
      * Constructor that initialises parametresInitialises to all false
@@ -149,6 +153,17 @@ public abstract class UsineOrganisme {
     }
 
 
+    /**
+     * General method that is defined in the final children classes that will
+     * create the species described by the parameters. It also checks if all
+     * of the parameters are initialized. The species is only built once, so
+     * every parameter must be set before the first organism is created.
+     * 
+     * @return the species shared by all of the organisms of this factory
+     * @throws ConditionsInitialesInvalides
+     */
+    public abstract Espece creerEspece() throws ConditionsInitialesInvalides;
+
     /**
      * General method that is defined in the final children classes that will
      * create a specific type of organism. It also checks if all of the
@@ -15,7 +15,10 @@ import conditionsinitialesinvalides.ConditionsInitialesInvalides;
  */
 public final class UsinePlante extends UsineOrganisme {
     @Override
-    public Plante creerOrganisme() throws ConditionsInitialesInvalides {
+    public Espece creerEspece() throws ConditionsInitialesInvalides {
+        if (espece != null)
+            return espece;
+
         // Exception handling if all parameters are not initialized
         for (Boolean initialise : parametresInitialises.values())
             if (!initialise)
@@ -23,7 +26,13 @@ public final class UsinePlante extends UsineOrganisme {
                         "Tous les paramètres n'ont pas étés initialisés avant "
                                 + "de créer la plante");
 
-        return new Plante(nomEspece, besoinEnergie, efficaciteEnergie,
+        espece = new Espece(nomEspece, besoinEnergie, efficaciteEnergie,
                 resilience, fertilite, ageFertilite, energieEnfant);
+        return espece;
+    }
+
+    @Override
+    public Plante creerOrganisme() throws ConditionsInitialesInvalides {
+        return new Plante(creerEspece());
     }
 }